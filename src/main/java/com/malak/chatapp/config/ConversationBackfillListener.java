@@ -0,0 +1,46 @@
+package com.malak.chatapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.malak.chatapp.service.ConversationService;
+import com.malak.chatapp.service.ConversationSummaryService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One-off data migration: links messages that predate the conversations table
+ * to their canonical conversation, then builds inbox summaries for conversations
+ * that predate them. Safe to run on every startup (no-op once done).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationBackfillListener {
+    
+    private final ConversationService conversationService;
+    private final ConversationSummaryService conversationSummaryService;
+    
+    @Value("${chat.migration.conversation-backfill.enabled:true}")
+    private boolean enabled;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversations() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            conversationService.backfillMissingConversations();
+        } catch (Exception e) {
+            log.error("Conversation backfill failed: {}", e.getMessage());
+        }
+        try {
+            conversationSummaryService.backfillMissingSummaries();
+        } catch (Exception e) {
+            log.error("Conversation summary backfill failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.malak.chatapp.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import com.malak.chatapp.service.GroupService;
+import com.malak.chatapp.service.GroupSubscriptionRegistry;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Outbound half of the group membership check: a group post is only written to a session
+ * whose subscription is still registered (and, past the recheck interval, still backed by a
+ * membership row). Covers posts the broker had already dispatched when the member was removed.
+ */
+@Component
+@RequiredArgsConstructor
+public class GroupDeliveryGuard implements ChannelInterceptor {
+
+    private final GroupSubscriptionRegistry subscriptionRegistry;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageType.MESSAGE != SimpMessageHeaderAccessor.getMessageType(headers)) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null || !destination.startsWith(GroupService.TOPIC_PREFIX)) {
+            return message;
+        }
+        boolean allowed = subscriptionRegistry.allowDelivery(
+                SimpMessageHeaderAccessor.getSessionId(headers), SimpMessageHeaderAccessor.getSubscriptionId(headers));
+        return allowed ? message : null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.malak.chatapp.config;
+
+import java.security.Principal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import com.malak.chatapp.service.GroupService;
+import com.malak.chatapp.service.GroupSubscriptionRegistry;
+import com.malak.chatapp.service.UserService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Guards broker destinations on the inbound channel, deny by default.
+ * The only direct broker subscription allowed is /topic/groups.{id}, for members; private
+ * queues are reached through /user/queue/..., never /queue/... itself. Patterns are refused
+ * outright: the simple broker matches subscriptions with a PathMatcher (and the relay
+ * understands AMQP wildcards), so /topic/** or /topic/# would receive every group's posts.
+ * Clients may not SEND straight to broker destinations either (posts go through
+ * /app/groups/{id}, which checks membership and stores the message).
+ * Group subscriptions are recorded in GroupSubscriptionRegistry so they can be revoked
+ * when the member is removed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GroupSubscriptionInterceptor implements ChannelInterceptor {
+    
+    private static final Pattern GROUP_TOPIC = Pattern.compile(Pattern.quote(GroupService.TOPIC_PREFIX) + "(\\d{1,18})");
+    
+    private final GroupService groupService;
+    private final UserService userService;
+    private final GroupSubscriptionRegistry subscriptionRegistry;
+    
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        if (StompCommand.UNSUBSCRIBE.equals(accessor.getCommand())) {
+            subscriptionRegistry.unsubscribed(accessor.getSessionId(), accessor.getSubscriptionId());
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            return message;
+        }
+        
+        if (StompCommand.SEND.equals(accessor.getCommand()) && isBrokerDestination(destination)) {
+            throw new IllegalArgumentException("Cannot send directly to " + destination);
+        }
+        
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkSubscription(destination, accessor);
+        }
+        return message;
+    }
+    
+    private void checkSubscription(String destination, StompHeaderAccessor accessor) {
+        Principal principal = accessor.getUser();
+        if (hasPattern(destination)) {
+            throw new IllegalArgumentException("Pattern subscriptions are not allowed: " + destination);
+        }
+        if (!isBrokerDestination(destination)) {
+            return; // /user/... destinations are resolved to the subscriber's own queues
+        }
+        Long groupId = parseGroupId(destination);
+        if (principal == null || groupId == null) {
+            throw new IllegalArgumentException("Cannot subscribe to " + destination);
+        }
+        Long userId = userService.getIdentityByUsername(principal.getName()).id();
+        // Recorded first: a removal that commits after the check below still revokes it
+        subscriptionRegistry.subscribed(accessor.getSessionId(), accessor.getSubscriptionId(), groupId, userId);
+        if (!groupService.isMember(groupId, userId)) {
+            subscriptionRegistry.unsubscribed(accessor.getSessionId(), accessor.getSubscriptionId());
+            log.warn("User {} tried to subscribe to group {} without being a member", userId, groupId);
+            throw new IllegalArgumentException("Not a member of group " + groupId);
+        }
+    }
+    
+    // Same prefix test the simple broker applies, so "/topicx" counts too
+    private static boolean isBrokerDestination(String destination) {
+        return destination.startsWith("/topic") || destination.startsWith("/queue");
+    }
+    
+    // Ant-style (*, ?, {var}) and AMQP (*, #) wildcards
+    private static boolean hasPattern(String destination) {
+        for (int i = 0; i < destination.length(); i++) {
+            char c = destination.charAt(i);
+            if (c == '*' || c == '?' || c == '#' || c == '{' || c == '}') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Long parseGroupId(String destination) {
+        Matcher matcher = GROUP_TOPIC.matcher(destination);
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : null;
+    }
+}
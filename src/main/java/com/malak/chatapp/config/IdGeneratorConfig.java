@@ -0,0 +1,21 @@
+package com.malak.chatapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import com.malak.chatapp.domain.TimeOrderedIdGenerator;
+
+import jakarta.annotation.PostConstruct;
+
+@Configuration
+public class IdGeneratorConfig {
+    
+    // Must be unique per running instance, otherwise ids can collide
+    @Value("${chat.node-id:0}")
+    private long nodeId;
+    
+    @PostConstruct
+    public void configureNodeId() {
+        TimeOrderedIdGenerator.setNodeId(nodeId);
+    }
+}
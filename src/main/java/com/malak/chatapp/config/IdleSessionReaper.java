@@ -0,0 +1,111 @@
+package com.malak.chatapp.config;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Closes WebSocket sessions that have sent nothing (not even a STOMP heart-beat)
+ * for longer than the idle timeout. Closing goes through the normal disconnect path,
+ * so presence and broker subscriptions are cleaned up as for any other disconnect.
+ * Complements the broker's own heart-beat check, which only applies to clients
+ * that negotiated heart-beats.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdleSessionReaper implements WebSocketHandlerDecoratorFactory {
+    
+    private static final CloseStatus IDLE_TIMEOUT = CloseStatus.GOING_AWAY.withReason("Idle timeout");
+    
+    private final MeterRegistry meterRegistry;
+    
+    // Keep well above chat.websocket.heartbeat.client-ms; 0 disables reaping
+    @Value("${chat.websocket.idle-reaper.timeout-ms:60000}")
+    private long idleTimeoutMs;
+    
+    private record TrackedSession(WebSocketSession session, AtomicLong lastActivityNanos) {}
+    
+    // sessionId -> session and the time of its last inbound frame
+    private final ConcurrentHashMap<String, TrackedSession> sessions = new ConcurrentHashMap<>();
+    
+    private Counter reapedSessions;
+    
+    @PostConstruct
+    public void init() {
+        reapedSessions = Counter.builder("chat.websocket.sessions.closed.idle")
+                .description("Sessions closed by the idle session reaper")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new TrackedSession(session, new AtomicLong(System.nanoTime())));
+                super.afterConnectionEstablished(session);
+            }
+            
+            @Override
+            public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+                // Any frame counts, heart-beats included
+                TrackedSession tracked = sessions.get(session.getId());
+                if (tracked != null) {
+                    tracked.lastActivityNanos().set(System.nanoTime());
+                }
+                super.handleMessage(session, message);
+            }
+            
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+    
+    @Scheduled(fixedRateString = "${chat.websocket.idle-reaper.interval-ms:15000}")
+    public void reapIdleSessions() {
+        if (idleTimeoutMs <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long timeoutNanos = idleTimeoutMs * 1_000_000;
+        
+        sessions.values().forEach(tracked -> {
+            if (now - tracked.lastActivityNanos().get() < timeoutNanos) {
+                return;
+            }
+            WebSocketSession session = tracked.session();
+            sessions.remove(session.getId());
+            reapedSessions.increment();
+            try {
+                log.info("Closing idle WebSocket session {}", session.getId());
+                session.close(IDLE_TIMEOUT);
+            } catch (IOException e) {
+                log.warn("Error closing idle WebSocket session {}: {}", session.getId(), e.getMessage());
+            }
+        });
+    }
+    
+    public int getTrackedSessions() {
+        return sessions.size();
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import com.malak.chatapp.secuirty.CustomUserDetailsService;
+import com.malak.chatapp.secuirty.JwtClaims;
 import com.malak.chatapp.secuirty.JwtService;
 
 import lombok.RequiredArgsConstructor;
@@ -39,15 +40,17 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
             token = token.substring(7);
             
             try {
-                String username = jwtService.extractUsername(token);
+                // Verifies signature and expiry once, throws when invalid
+                JwtClaims claims = jwtService.verify(token);
+                String username = claims.subject();
                 
-                if (username == null || !jwtService.isTokenValid(token, username)) {
+                if (username == null) {
                     log.warn("Invalid JWT token for WebSocket connection");
                     throw new IllegalArgumentException("Invalid or expired JWT token");
                 }
                 
-                // Load full user details with authorities (consistent with JwtAuthFilter)
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // Principal from token claims (consistent with JwtAuthFilter)
+                UserDetails userDetails = userDetailsService.loadTokenUser(claims);
                 
                 UsernamePasswordAuthenticationToken auth = 
                     new UsernamePasswordAuthenticationToken(
@@ -38,7 +38,7 @@ public class SecurityConfig {
 		.csrf(csrf -> csrf.disable())
 		.authorizeHttpRequests(auth -> auth
 				.requestMatchers("/swagger-ui/**", "/v3/api-docs*/**").permitAll()
-				.requestMatchers("/chat/**","/index.html").permitAll()   // allow WebSocket handshake
+				.requestMatchers("/chat/**", "/ws", "/index.html").permitAll()   // allow WebSocket handshake (SockJS and native)
 		        .requestMatchers("/api/auth/**").permitAll()
 		        .anyRequest().authenticated()
 				)
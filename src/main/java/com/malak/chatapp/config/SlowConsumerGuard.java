@@ -0,0 +1,135 @@
+package com.malak.chatapp.config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Slow consumer policy for outbound WebSocket frames.
+ * Every session is wrapped so we know when a write to the socket has been stuck for
+ * longer than the slow-send threshold. While it is, ephemeral frames (typing, status)
+ * for that session are dropped on the outbound channel so the send buffer is left for
+ * chat messages. Sessions that still overflow the buffer or send time limit are closed
+ * by Spring with SESSION_NOT_RELIABLE, which is counted here.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlowConsumerGuard implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+    
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${chat.websocket.slow-consumer.threshold-ms:1000}")
+    private long slowThresholdMs;
+    
+    // Frames to these destinations may be dropped for a slow session
+    @Value("${chat.websocket.slow-consumer.droppable-destinations:/user/queue/typing,/user/queue/status}")
+    private List<String> droppableDestinations;
+    
+    // sessionId -> System.nanoTime() when the current socket write started, 0 when idle
+    private final ConcurrentHashMap<String, AtomicLong> sendStartedAt = new ConcurrentHashMap<>();
+    
+    private Counter droppedFrames;
+    private Counter forcedCloses;
+    
+    @PostConstruct
+    public void init() {
+        droppedFrames = Counter.builder("chat.websocket.outbound.dropped")
+                .description("Typing/status frames dropped because the session was slow")
+                .register(meterRegistry);
+        forcedCloses = Counter.builder("chat.websocket.sessions.closed.slow")
+                .description("Sessions closed for exceeding the send buffer or send time limit")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null || !isSlow(sessionId) || !isDroppable(message)) {
+            return message;
+        }
+        droppedFrames.increment();
+        log.debug("Dropping {} for slow session {}", SimpMessageHeaderAccessor.getDestination(message.getHeaders()), sessionId);
+        return null;
+    }
+    
+    boolean isSlow(String sessionId) {
+        AtomicLong startedAt = sendStartedAt.get(sessionId);
+        if (startedAt == null) {
+            return false;
+        }
+        long started = startedAt.get();
+        return started != 0 && System.nanoTime() - started >= slowThresholdMs * 1_000_000;
+    }
+    
+    private boolean isDroppable(Message<?> message) {
+        // Resolved user destinations keep the original one, e.g. /user/queue/typing
+        String destination = (String) message.getHeaders().get(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+        if (destination == null) {
+            destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        }
+        if (destination == null) {
+            return false;
+        }
+        for (String droppable : droppableDestinations) {
+            if (destination.startsWith(droppable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                AtomicLong startedAt = new AtomicLong();
+                sendStartedAt.put(session.getId(), startedAt);
+                // The STOMP handler keeps this wrapper and writes every frame through it
+                super.afterConnectionEstablished(new WebSocketSessionDecorator(session) {
+                    @Override
+                    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                        startedAt.set(System.nanoTime());
+                        try {
+                            super.sendMessage(message);
+                        } finally {
+                            startedAt.set(0);
+                        }
+                    }
+                });
+            }
+            
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sendStartedAt.remove(session.getId());
+                if (CloseStatus.SESSION_NOT_RELIABLE.getCode() == closeStatus.getCode()) {
+                    forcedCloses.increment();
+                    log.warn("WebSocket session {} closed as a slow consumer", session.getId());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+}
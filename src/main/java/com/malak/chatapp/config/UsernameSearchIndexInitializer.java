@@ -0,0 +1,41 @@
+package com.malak.chatapp.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Under a non-C collation PostgreSQL cannot answer LIKE 'prefix%' from the plain
+ * b-tree on users.username_lower (that one only serves the ORDER BY of the keyset).
+ * A varchar_pattern_ops index makes the prefix a range scan. JPA cannot declare
+ * operator classes, so it is created here once the schema exists.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UsernameSearchIndexInitializer {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void createPatternIndex() {
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equals(product)) {
+                return;
+            }
+            jdbcTemplate.execute(
+                    "CREATE INDEX IF NOT EXISTS idx_users_username_lower_pattern " +
+                    "ON users (username_lower varchar_pattern_ops)");
+            log.info("Username prefix index ready");
+        } catch (Exception e) {
+            log.error("Could not create the username prefix index: {}", e.getMessage());
+        }
+    }
+}
@@ -1,36 +1,247 @@
 package com.malak.chatapp.config;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.TaskExecutorRegistration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Configuration
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
     private final JwtChannelInterceptor jwtChannelInterceptor;
+    private final GroupSubscriptionInterceptor groupSubscriptionInterceptor;
+    private final MeterRegistry meterRegistry;
+    private final SlowConsumerGuard slowConsumerGuard;
+    private final GroupDeliveryGuard groupDeliveryGuard;
+    private final IdleSessionReaper idleSessionReaper;
+    
+    // Created by the message broker configuration itself, hence set lazily
+    private TaskScheduler messageBrokerTaskScheduler;
+    
+    // STOMP heart-beat: how often we send one / how often we expect one from the client (0 = off)
+    @Value("${chat.websocket.heartbeat.server-ms:10000}")
+    private long heartbeatServerMs;
+    
+    @Value("${chat.websocket.heartbeat.client-ms:10000}")
+    private long heartbeatClientMs;
+    
+    // simple = in-memory broker (single instance), relay = external STOMP broker shared by all instances
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+    
+    @Value("${chat.broker.relay.host:localhost}")
+    private String relayHost;
+    
+    @Value("${chat.broker.relay.port:61613}")
+    private int relayPort;
+    
+    @Value("${chat.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+    
+    @Value("${chat.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+    
+    @Value("${chat.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+    
+    @Value("${chat.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+    
+    @Value("${chat.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+    
+    // Channel thread pools (queued/active gauges come from Spring Boot's executor metrics,
+    // tagged with the executor bean name, e.g. clientInboundChannelExecutor)
+    @Value("${chat.websocket.inbound.core-pool-size:16}")
+    private int inboundCorePoolSize;
+    
+    @Value("${chat.websocket.inbound.max-pool-size:64}")
+    private int inboundMaxPoolSize;
+    
+    @Value("${chat.websocket.inbound.queue-capacity:2000}")
+    private int inboundQueueCapacity;
+    
+    // Run @MessageMapping handlers on virtual threads instead of the inbound pool
+    @Value("${chat.websocket.inbound.virtual-threads:false}")
+    private boolean inboundVirtualThreads;
+    
+    // Max handlers in flight on virtual threads, -1 = unbounded; callers wait when reached
+    @Value("${chat.websocket.inbound.virtual-thread-concurrency-limit:-1}")
+    private int inboundVirtualThreadConcurrencyLimit;
+    
+    @Value("${chat.websocket.outbound.core-pool-size:16}")
+    private int outboundCorePoolSize;
+    
+    @Value("${chat.websocket.outbound.max-pool-size:64}")
+    private int outboundMaxPoolSize;
+    
+    @Value("${chat.websocket.outbound.queue-capacity:2000}")
+    private int outboundQueueCapacity;
+    
+    @Value("${chat.websocket.broker.core-pool-size:4}")
+    private int brokerCorePoolSize;
+    
+    @Value("${chat.websocket.broker.max-pool-size:16}")
+    private int brokerMaxPoolSize;
+    
+    @Value("${chat.websocket.broker.queue-capacity:2000}")
+    private int brokerQueueCapacity;
+    
+    // Transport limits; a session over the send buffer or send time limit is closed
+    @Value("${chat.websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+    
+    @Value("${chat.websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+    
+    @Value("${chat.websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+    
+    // SockJS (/chat) tuning
+    @Value("${chat.websocket.sockjs.heartbeat-time-ms:25000}")
+    private long sockJsHeartbeatTimeMs;
+    
+    @Value("${chat.websocket.sockjs.disconnect-delay-ms:5000}")
+    private long sockJsDisconnectDelayMs;
+    
+    @Value("${chat.websocket.sockjs.stream-bytes-limit:131072}")
+    private int sockJsStreamBytesLimit;
 
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+    
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.setApplicationDestinationPrefixes("/app");
-        config.enableSimpleBroker("/topic", "/queue"); // Add /queue
         config.setUserDestinationPrefix("/user"); // Add user prefix for private messages
+        // Broker destinations are dot-separated (/topic/groups.{id}) as RabbitMQ expects. With
+        // this matcher /app/ is stripped whole, so @MessageMapping values have no leading slash
+        config.setPathMatcher(new AntPathMatcher("."));
+        pool(config.configureBrokerChannel().taskExecutor(),
+                brokerCorePoolSize, brokerMaxPoolSize, brokerQueueCapacity);
+        
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode)
+                    // /user/... sends for users connected to another instance are rebroadcast here
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    // Instances share their connected users so SimpUserRegistry sees the whole cluster
+                    .setUserRegistryBroadcast("/topic/simp-user-registry")
+                    // Heart-beats on the shared system connection; client sessions negotiate their own with the broker
+                    .setSystemHeartbeatSendInterval(heartbeatServerMs)
+                    .setSystemHeartbeatReceiveInterval(heartbeatClientMs)
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+            if (StringUtils.hasText(relayVirtualHost)) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            log.info("STOMP broker relay to {}:{}", relayHost, relayPort);
+        } else if ("simple".equalsIgnoreCase(brokerMode)) {
+            config.enableSimpleBroker("/topic", "/queue") // Add /queue
+                    // The broker drops sessions that miss client heart-beats
+                    .setHeartbeatValue(new long[] {heartbeatServerMs, heartbeatClientMs})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        } else {
+            throw new IllegalStateException("Unknown chat.broker.mode: " + brokerMode + " (expected simple or relay)");
+        }
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        // Native WebSocket, no SockJS framing or fallbacks
+        registry.addEndpoint("/ws")
+                .setAllowedOriginPatterns("*");
+        
+        // SockJS for clients that need HTTP streaming/polling fallbacks
         registry.addEndpoint("/chat")
                 .setAllowedOriginPatterns("*")
-                .withSockJS();
+                .withSockJS()
+                .setHeartbeatTime(sockJsHeartbeatTimeMs)
+                .setDisconnectDelay(sockJsDisconnectDelayMs)
+                .setStreamBytesLimit(sockJsStreamBytesLimit);
     }
     
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(jwtChannelInterceptor);
+        // Authenticate on CONNECT first, then check group membership on SUBSCRIBE
+        registration.interceptors(jwtChannelInterceptor, groupSubscriptionInterceptor);
+        
+        if (inboundVirtualThreads) {
+            registration.executor(virtualThreadExecutor());
+        } else {
+            pool(registration.taskExecutor(), inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity);
+        }
+    }
+    
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .addDecoratorFactory(slowConsumerGuard)
+                .addDecoratorFactory(idleSessionReaper);
+    }
+    
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Drops group posts for revoked subscriptions, then typing/status frames for sessions whose socket writes are stalled
+        registration.interceptors(groupDeliveryGuard, slowConsumerGuard);
+        pool(registration.taskExecutor(), outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity);
+    }
+    
+    private static void pool(TaskExecutorRegistration registration, int corePoolSize, int maxPoolSize, int queueCapacity) {
+        // Threads beyond the core size are only started once the queue is full
+        registration.corePoolSize(corePoolSize).maxPoolSize(maxPoolSize).queueCapacity(queueCapacity);
+    }
+    
+    private SimpleAsyncTaskExecutor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ws-inbound-vt-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(inboundVirtualThreadConcurrencyLimit);
+        
+        // Not a thread pool, so Boot's executor metrics don't see it; count handlers in flight instead
+        AtomicInteger active = new AtomicInteger();
+        executor.setTaskDecorator(task -> () -> {
+            active.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        });
+        Gauge.builder("chat.websocket.inbound.active", active, AtomicInteger::get)
+                .description("@MessageMapping handlers running on virtual threads")
+                .register(meterRegistry);
+        
+        log.info("Inbound STOMP messages handled on virtual threads (concurrency limit {})", inboundVirtualThreadConcurrencyLimit);
+        return executor;
     }
 }
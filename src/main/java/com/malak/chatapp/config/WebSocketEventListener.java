@@ -7,7 +7,11 @@ import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
+import com.malak.chatapp.service.GroupSubscriptionRegistry;
+import com.malak.chatapp.service.OfflineReplayService;
+import com.malak.chatapp.service.TypingRateLimiter;
 import com.malak.chatapp.service.UserService;
 import com.malak.chatapp.service.UserStatusService;
 
@@ -20,7 +24,10 @@ import lombok.extern.slf4j.Slf4j;
 public class WebSocketEventListener {
     
     private final UserStatusService userStatusService;
+    private final TypingRateLimiter typingRateLimiter;
     private final UserService userService;
+    private final OfflineReplayService offlineReplayService;
+    private final GroupSubscriptionRegistry groupSubscriptionRegistry;
     
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
@@ -32,8 +39,8 @@ public class WebSocketEventListener {
             String sessionId = headerAccessor.getSessionId();
             
             try {
-                // Get user ID from username
-                Long userId = userService.findUserByUsername(username).getId();
+                // Get user ID from username (cached)
+                Long userId = userService.getIdentityByUsername(username).id();
                 
                 // Mark user as online
                 userStatusService.userConnected(userId, sessionId);
@@ -45,21 +52,45 @@ public class WebSocketEventListener {
         }
     }
     
+    /**
+     * Missed messages are replayed once the private queue is subscribed, not on CONNECTED:
+     * the broker drops anything sent to a destination the session is not subscribed to yet.
+     */
+    @EventListener
+    public void handleWebSocketSubscribeListener(SessionSubscribeEvent event) {
+        StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+        Principal principal = headerAccessor.getUser();
+        
+        if (principal != null && "/user/queue/private".equals(headerAccessor.getDestination())) {
+            String username = principal.getName();
+            try {
+                Long userId = userService.getIdentityByUsername(username).id();
+                offlineReplayService.sessionSubscribed(userId, username, headerAccessor.getSessionId());
+            } catch (Exception e) {
+                log.error("Error scheduling offline replay for user {}: {}", username, e.getMessage());
+            }
+        }
+    }
+    
     @EventListener
     public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         Principal principal = headerAccessor.getUser();
         
+        typingRateLimiter.removeSession(event.getSessionId());
+        offlineReplayService.sessionClosed(event.getSessionId());
+        groupSubscriptionRegistry.sessionClosed(event.getSessionId());
+        
         if (principal != null) {
             String username = principal.getName();
             String sessionId = headerAccessor.getSessionId();
             
             try {
-                // Get user ID from username
-                Long userId = userService.findUserByUsername(username).getId();
+                // Get user ID from username (cached)
+                Long userId = userService.getIdentityByUsername(username).id();
                 
-                // Mark user as offline
-                userStatusService.userDisconnected(userId);
+                // Drop this session (user goes offline with the last one)
+                userStatusService.userDisconnected(userId, sessionId);
                 
                 log.info("WebSocket disconnected - User: {}, Session: {}", username, sessionId);
             } catch (Exception e) {
@@ -0,0 +1,28 @@
+package com.malak.chatapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * How often Spring logs WebSocket/STOMP stats. The log line splits sessions by
+ * transport (webSocket, httpStreaming, httpPolling), which shows how many clients
+ * use the native /ws endpoint versus SockJS fallbacks.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebSocketStatsConfig {
+    
+    private final WebSocketMessageBrokerStats webSocketMessageBrokerStats;
+    
+    @Value("${chat.websocket.stats-logging-period-ms:1800000}")
+    private long loggingPeriodMs;
+    
+    @PostConstruct
+    public void init() {
+        webSocketMessageBrokerStats.setLoggingPeriod(loggingPeriodMs);
+    }
+}
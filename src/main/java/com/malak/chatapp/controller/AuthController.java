@@ -22,6 +22,7 @@ import com.malak.chatapp.dto.TokenDto;
 import com.malak.chatapp.dto.UserDto;
 import com.malak.chatapp.exception.ResourceNotFoundException;
 import com.malak.chatapp.secuirty.CustomUserDetails;
+import com.malak.chatapp.secuirty.JwtClaims;
 import com.malak.chatapp.secuirty.JwtService;
 import com.malak.chatapp.service.RefreshTokenService;
 import com.malak.chatapp.service.UserService;
@@ -50,7 +51,7 @@ public class AuthController {
 	    User createdUser = userService.createUser(createUserDto, Role.USER);
 	    
 	    // Generate JWT for the new user
-	    String access = jwtService.generateAccessToken(createdUser.getUsername(), createdUser.getRole());
+	    String access = jwtService.generateAccessToken(createdUser.getId(), createdUser.getUsername(), createdUser.getRole());
 	    RefreshToken refreshToken = refreshTokenService.createRefreshToken(createdUser.getUsername(), createdUser.getRole());
         String refresh = refreshToken.getToken();
         TokenDto tokenDto = TokenDto.builder().access(access).refresh(refresh).expiresIn(jwtService.getAccessTokenExpiration()).build();
@@ -70,7 +71,7 @@ public class AuthController {
             User user = userDetails.getUser();
             UserDto userDto = UserDto.builder().id(user.getId()).username(user.getUsername()).role(user.getRole()).build();
 
-            String access = jwtService.generateAccessToken(authentication.getName(), userDetails.getUser().getRole());
+            String access = jwtService.generateAccessToken(user.getId(), authentication.getName(), userDetails.getUser().getRole());
             RefreshToken refreshToken = refreshTokenService.createRefreshToken(authentication.getName(), userDetails.getUser().getRole());
             String refresh = refreshToken.getToken();
             
@@ -93,12 +94,13 @@ public class AuthController {
     		throw new IllegalArgumentException("Refresh token is expired");
     	}
     	
-    	String username = jwtService.extractUsername(requestRefreshToken);
-    	if(! jwtService.isTokenValid(requestRefreshToken, username) || !jwtService.isRefreshToken(requestRefreshToken)) {
+    	JwtClaims claims = jwtService.verify(requestRefreshToken);
+    	String username = claims.subject();
+    	if(username == null || !claims.isRefreshToken()) {
     		throw new IllegalArgumentException("Invalid refresh token");
     	}
     	User user = userService.findUserByUsername(username);
-    	String newAccessToken = jwtService.generateAccessToken(username, user.getRole());
+    	String newAccessToken = jwtService.generateAccessToken(user.getId(), username, user.getRole());
     	TokenDto tokenDto = TokenDto.builder().access(newAccessToken).refresh(requestRefreshToken).expiresIn(jwtService.getAccessTokenExpiration()).build();
         ApiResponse<TokenDto> response = ApiResponse.success(tokenDto, "refresh the access token successfully");
 		
@@ -2,15 +2,27 @@
 package com.malak.chatapp.controller;
 
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
 import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.dto.DeliveryAckDTO;
+import com.malak.chatapp.dto.MessageBatchDTO;
+import com.malak.chatapp.dto.MessageBatchItemResult;
+import com.malak.chatapp.dto.MessageBatchResultDTO;
 import com.malak.chatapp.dto.MessageDTO;
+import com.malak.chatapp.dto.ReceiptDTO;
 import com.malak.chatapp.service.MessageService;
+import com.malak.chatapp.service.OfflineReplayService;
+import com.malak.chatapp.service.ReceiptService;
 import com.malak.chatapp.service.UserService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,17 +36,19 @@ public class ChatController {
     private final SimpMessagingTemplate messagingTemplate;
     private final MessageService messageService;
     private final UserService userService;
+    private final ReceiptService receiptService;
+    private final OfflineReplayService offlineReplayService;
     
-    @MessageMapping("/private")
+    @MessageMapping("private")
     public void sendPrivateMessage(@Valid @Payload MessageDTO dto, Principal principal) {
     	try {
         // Get sender from JWT authentication (more secure)
         String senderUsername = principal.getName();
         
-        // Save message to database
+        // Save message to database (user lookups are served from the identity cache)
         Message saved = messageService.sendMessage(
-            userService.findUserByUsername(senderUsername),
-            userService.findUserByUsername(dto.recipient()), // Use recipient username
+            userService.getIdentityByUsername(senderUsername),
+            userService.getIdentityByUsername(dto.recipient()), // Use recipient username
             dto.content()
         );
         
@@ -64,4 +78,68 @@ public class ChatController {
 			throw e;
 		}
     }
-}
\ No newline at end of file
+    
+    /**
+     * Several messages in one frame (offline drafts, bots).
+     * Client sends: { batchId: "b1", messages: [{ recipient: "bob", content: "hi" }, ...] }
+     * Each recipient gets its messages as one list on /user/queue/private-batch (the sender's
+     * other sessions get the whole accepted batch there too); the sending session gets one
+     * result per item, in order, on /user/queue/private-batch-results.
+     */
+    @MessageMapping("private-batch")
+    @SendToUser(destinations = "/queue/private-batch-results", broadcast = false)
+    public MessageBatchResultDTO sendPrivateMessages(@Valid @Payload MessageBatchDTO dto, Principal principal) {
+        String senderUsername = principal.getName();
+        List<MessageDTO> items = dto.messages();
+        List<MessageBatchItemResult> results = messageService.sendMessages(
+            userService.getIdentityByUsername(senderUsername), items);
+        
+        // One outbound frame per recipient instead of one per message
+        Map<String, List<MessageDTO>> byRecipient = new LinkedHashMap<>();
+        List<MessageDTO> sent = new ArrayList<>();
+        for (MessageBatchItemResult result : results) {
+            if (!result.isSent()) {
+                continue;
+            }
+            MessageDTO item = items.get(result.index());
+            MessageDTO outgoing = new MessageDTO(
+                result.id(), senderUsername, item.recipient(), item.content(), result.timestamp());
+            byRecipient.computeIfAbsent(item.recipient(), recipient -> new ArrayList<>()).add(outgoing);
+            sent.add(outgoing);
+        }
+        byRecipient.forEach((recipient, messages) ->
+            messagingTemplate.convertAndSendToUser(recipient, "/queue/private-batch", messages));
+        if (!sent.isEmpty()) {
+            messagingTemplate.convertAndSendToUser(senderUsername, "/queue/private-batch", sent);
+        }
+        
+        return new MessageBatchResultDTO(dto.batchId(), results);
+    }
+    
+    /**
+     * Delivered / read receipt for everything the peer sent up to messageId.
+     * Client sends: { peer: "alice", messageId: 123, type: "DELIVERED" | "READ" }
+     * The peer receives it on /user/queue/receipts with peer set to the reader.
+     */
+    @MessageMapping("receipt")
+    public void acknowledge(@Valid @Payload ReceiptDTO dto, Principal principal) {
+        receiptService.acknowledge(
+            userService.getIdentityByUsername(principal.getName()),
+            userService.getIdentityByUsername(dto.getPeer()),
+            dto.getMessageId(),
+            dto.getType()
+        );
+    }
+    
+    /**
+     * Client has received every message up to messageId (any conversation).
+     * Client sends: { messageId: 123 }; the next session replays only what comes after.
+     */
+    @MessageMapping("ack")
+    public void acknowledgeDelivery(@Valid @Payload DeliveryAckDTO dto, Principal principal) {
+        offlineReplayService.acknowledge(
+            userService.getIdentityByUsername(principal.getName()).id(),
+            dto.messageId()
+        );
+    }
+}
@@ -0,0 +1,57 @@
+package com.malak.chatapp.controller;
+
+import java.security.Principal;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.malak.chatapp.dto.ApiResponse;
+import com.malak.chatapp.dto.InboxPageDto;
+import com.malak.chatapp.service.ConversationSummaryService;
+import com.malak.chatapp.service.UserService;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/conversations")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Conversation")
+public class ConversationController {
+
+    private final ConversationSummaryService conversationSummaryService;
+    private final UserService userService;
+
+    private Long getCurrentUserId(Principal principal) {
+        return userService.getIdentityByUsername(principal.getName()).id();
+    }
+
+    /**
+     * Inbox of the current user, most recently active conversation first
+     * GET /api/conversations?cursor=120&size=20
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<InboxPageDto>> getInbox(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20")
+            @Min(value = 1, message = "Page size must be at least 1")
+            @Max(value = 100, message = "Page size must be at most 100")
+            int size,
+            Principal principal) {
+        InboxPageDto page = conversationSummaryService.getInbox(getCurrentUserId(principal), cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page, "Conversations retrieved"));
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<ApiResponse<Long>> getUnreadCount(Principal principal) {
+        long count = conversationSummaryService.getUnreadCount(getCurrentUserId(principal));
+        return ResponseEntity.ok(ApiResponse.success(count, "Unread count retrieved"));
+    }
+}
@@ -18,11 +18,14 @@ import com.malak.chatapp.domain.User;
 import com.malak.chatapp.dto.ApiResponse;
 import com.malak.chatapp.dto.FriendshipStatusDto;
 import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.dto.UserSearchPageDto;
 import com.malak.chatapp.mapper.FriendMapper;
 import com.malak.chatapp.service.FriendshipService;
 import com.malak.chatapp.service.UserService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -58,14 +61,19 @@ public class FriendshipController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<UserDto>>> searchFriends(
+    public ResponseEntity<ApiResponse<UserSearchPageDto>> searchFriends(
             @RequestParam @NotBlank String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "20")
+            @Min(value = 1, message = "Page size must be at least 1")
+            @Max(value = 50, message = "Page size must be at most 50")
+            int size,
             Principal principal) {
 
         User user = getCurrentUser(principal);
-        List<UserDto> dtos = friendshipService.searchFriends(user.getId(), query)
-                .stream().map(friendMapper::toUserDto).collect(Collectors.toList());
-        return ResponseEntity.ok(ApiResponse.success(dtos, String.format("Found %d friends matching '%s'", dtos.size(), query)));
+        UserSearchPageDto page = friendshipService.searchFriends(user.getId(), query, cursor, cursorId, size);
+        return ResponseEntity.ok(ApiResponse.success(page, String.format("Found %d friends matching '%s'", page.getUsers().size(), query)));
     }
 
     @GetMapping("/check/{userId}")
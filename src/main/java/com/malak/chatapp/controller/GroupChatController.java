@@ -0,0 +1,42 @@
+package com.malak.chatapp.controller;
+
+import java.security.Principal;
+
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Controller;
+
+import com.malak.chatapp.dto.GroupMessageDTO;
+import com.malak.chatapp.service.GroupService;
+import com.malak.chatapp.service.UserService;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@Controller
+@RequiredArgsConstructor
+@Tag(name = "Group Chat")
+public class GroupChatController {
+    private final SimpMessagingTemplate messagingTemplate;
+    private final GroupService groupService;
+    private final UserService userService;
+    
+    /**
+     * Post to a group.
+     * Client sends: { content: "hi" } to /app/groups/{groupId}
+     * Members receive it on /topic/groups.{groupId}: one publish, fanned out by the broker.
+     */
+    @MessageMapping("groups/{groupId}")
+    public void sendGroupMessage(@DestinationVariable Long groupId, @Valid @Payload GroupMessageDTO dto,
+    		Principal principal) {
+        GroupMessageDTO outgoing = groupService.sendGroupMessage(
+            groupId,
+            userService.getIdentityByUsername(principal.getName()),
+            dto.content()
+        );
+        messagingTemplate.convertAndSend(GroupService.topic(groupId), outgoing);
+    }
+}
@@ -0,0 +1,108 @@
+package com.malak.chatapp.controller;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.malak.chatapp.dto.ApiResponse;
+import com.malak.chatapp.dto.CreateGroupDto;
+import com.malak.chatapp.dto.GroupDto;
+import com.malak.chatapp.dto.GroupMemberDto;
+import com.malak.chatapp.dto.GroupMessagePageDto;
+import com.malak.chatapp.service.GroupService;
+import com.malak.chatapp.service.UserService;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/groups")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Group")
+public class GroupController {
+
+    private final GroupService groupService;
+    private final UserService userService;
+
+    private Long getCurrentUserId(Principal principal) {
+        return userService.getIdentityByUsername(principal.getName()).id();
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<GroupDto>> createGroup(
+            @Valid @RequestBody CreateGroupDto dto,
+            Principal principal) {
+        GroupDto group = groupService.createGroup(getCurrentUserId(principal), dto.getName(), dto.getMemberIds());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(group, "Group created successfully"));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<GroupDto>>> getMyGroups(Principal principal) {
+        List<GroupDto> groups = groupService.getGroupsOfUser(getCurrentUserId(principal));
+        return ResponseEntity.ok(ApiResponse.success(groups, String.format("Retrieved %d groups", groups.size())));
+    }
+
+    @GetMapping("/{groupId}/members")
+    public ResponseEntity<ApiResponse<List<GroupMemberDto>>> getMembers(
+            @PathVariable @NotNull Long groupId,
+            Principal principal) {
+        List<GroupMemberDto> members = groupService.getMembers(groupId, getCurrentUserId(principal));
+        return ResponseEntity.ok(ApiResponse.success(members, String.format("Retrieved %d members", members.size())));
+    }
+
+    @PostMapping("/{groupId}/members/{userId}")
+    public ResponseEntity<ApiResponse<Void>> addMember(
+            @PathVariable @NotNull Long groupId,
+            @PathVariable @NotNull Long userId,
+            Principal principal) {
+        groupService.addMember(groupId, getCurrentUserId(principal), userId);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(null, "Member added successfully"));
+    }
+
+    /**
+     * Owner removes a member, or a member removes themselves (leave)
+     */
+    @DeleteMapping("/{groupId}/members/{userId}")
+    public ResponseEntity<ApiResponse<Void>> removeMember(
+            @PathVariable @NotNull Long groupId,
+            @PathVariable @NotNull Long userId,
+            Principal principal) {
+        groupService.removeMember(groupId, getCurrentUserId(principal), userId);
+        return ResponseEntity.ok(ApiResponse.success(null, "Member removed successfully"));
+    }
+
+    /**
+     * Cursor based group history, newest page first
+     * GET /api/groups/{groupId}/messages?cursor=120&size=50
+     */
+    @GetMapping("/{groupId}/messages")
+    public ResponseEntity<ApiResponse<GroupMessagePageDto>> getMessages(
+            @PathVariable @NotNull Long groupId,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50")
+            @Min(value = 1, message = "Page size must be at least 1")
+            @Max(value = 100, message = "Page size must be at most 100")
+            int size,
+            Principal principal) {
+        GroupMessagePageDto page = groupService.getGroupMessages(groupId, getCurrentUserId(principal), cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page, "Messages retrieved"));
+    }
+}
@@ -1,20 +1,32 @@
 package com.malak.chatapp.controller;
 
-import java.util.List;
+import java.security.Principal;
 
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.malak.chatapp.domain.Message;
 import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.ApiResponse;
+import com.malak.chatapp.dto.CursorDirection;
+import com.malak.chatapp.dto.MessagePageDto;
+import com.malak.chatapp.dto.MessageSearchPageDto;
+import com.malak.chatapp.dto.ReceiptStateDto;
+import com.malak.chatapp.service.MessageSearchIndex;
 import com.malak.chatapp.service.MessageService;
+import com.malak.chatapp.service.ReceiptService;
 import com.malak.chatapp.service.UserService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 @RestController
 @RequestMapping("/messages")
@@ -23,22 +35,81 @@ import jakarta.validation.constraints.NotNull;
 public class MessageController {
 	private final MessageService messageService;
     private final UserService userService;
+    private final ReceiptService receiptService;
+    private final MessageSearchIndex messageSearchIndex;
 
-    public MessageController(MessageService service, UserService userService) {
+    public MessageController(MessageService service, UserService userService, ReceiptService receiptService,
+    		MessageSearchIndex messageSearchIndex) {
         this.messageService = service;
         this.userService = userService;
+        this.receiptService = receiptService;
+        this.messageSearchIndex = messageSearchIndex;
     }
 
+    /**
+     * Full-text search in the current user's conversations, best match first
+     * GET /messages/search?q=dinner friday&page=0&size=20
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<MessageSearchPageDto>> searchMessages(
+    		@RequestParam
+    		@NotBlank(message = "Query must be not blank")
+    		@Size(max = 200, message = "Query must be at most 200 characters")
+    		String q,
+    		@RequestParam(defaultValue = "0")
+    		@Min(value = 0, message = "Page must be at least 0")
+    		@Max(value = 50, message = "Page must be at most 50")
+    		int page,
+    		@RequestParam(defaultValue = "20")
+    		@Min(value = 1, message = "Page size must be at least 1")
+    		@Max(value = 50, message = "Page size must be at most 50")
+    		int size,
+    		Principal principal) {
+        Long userId = userService.getIdentityByUsername(principal.getName()).id();
+        MessageSearchPageDto results = messageSearchIndex.search(userId, q, page, size);
+        return ResponseEntity.ok(ApiResponse.success(results, "Messages found"));
+    }
+
+    /**
+     * Cursor based conversation history
+     * GET /messages/{user1}/{user2}?cursor=120&direction=BEFORE&size=50
+     */
     @GetMapping("/{user1}/{user2}")
-    public List<Message> getConversation(
+    public ResponseEntity<ApiResponse<MessagePageDto>> getConversation(
     		@PathVariable 
     		@NotNull(message = "User 1 id must be not null")
     		Long user1,
     		@PathVariable 
     		@NotNull(message = "User 2 id must be not null")                            
-    		Long user2) {
+    		Long user2,
+    		@RequestParam(required = false) Long cursor,
+    		@RequestParam(defaultValue = "BEFORE") CursorDirection direction,
+    		@RequestParam(defaultValue = "50")
+    		@Min(value = 1, message = "Page size must be at least 1")
+    		@Max(value = 100, message = "Page size must be at most 100")
+    		int size) {
         User u1 = userService.findUserById(user1);
         User u2 = userService.findUserById(user2);
-        return messageService.getConversation(u1, u2);
+        MessagePageDto page = messageService.getConversationPage(u1, u2, cursor, direction, size);
+        return ResponseEntity.ok(ApiResponse.success(page, "Messages retrieved"));
+    }
+
+    /**
+     * Delivered / read marks of both participants, for either participant only. Anything
+     * with an id above a user's last read id is unread for that user.
+     * GET /messages/{user1}/{user2}/receipts
+     */
+    @GetMapping("/{user1}/{user2}/receipts")
+    public ResponseEntity<ApiResponse<ReceiptStateDto>> getReceipts(
+    		@PathVariable
+    		@NotNull(message = "User 1 id must be not null")
+    		Long user1,
+    		@PathVariable
+    		@NotNull(message = "User 2 id must be not null")
+    		Long user2,
+    		Principal principal) {
+        Long requesterId = userService.getIdentityByUsername(principal.getName()).id();
+        ReceiptStateDto state = receiptService.getReceiptState(requesterId, user1, user2);
+        return ResponseEntity.ok(ApiResponse.success(state, "Receipts retrieved"));
     }
 }
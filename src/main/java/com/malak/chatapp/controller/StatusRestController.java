@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.malak.chatapp.dto.ApiResponse;
+import com.malak.chatapp.dto.UserSessionsDTO;
 import com.malak.chatapp.dto.UserStatusDTO;
 import com.malak.chatapp.service.UserStatusService;
 
@@ -40,6 +41,19 @@ class StatusRestController {
     	return ResponseEntity.ok(response);
     }
     
+    /**
+     * Get the user's open WebSocket sessions
+     * GET /api/status/{userId}/sessions
+     */
+    @GetMapping("/{userId}/sessions")
+    public ResponseEntity<ApiResponse<UserSessionsDTO>> getUserSessions(
+    		@PathVariable
+    		@NotNull(message = "UserId must be not null")
+    		Long userId) {
+    	ApiResponse<UserSessionsDTO> response = ApiResponse.success(userStatusService.getUserSessions(userId));
+    	return ResponseEntity.ok(response);
+    }
+    
     /**
      * Get all online users (for debugging)
      * GET /api/status/online
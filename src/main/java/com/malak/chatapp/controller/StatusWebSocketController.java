@@ -2,12 +2,14 @@ package com.malak.chatapp.controller;
 
 import java.security.Principal;
 
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Controller;
 
 import com.malak.chatapp.dto.TypingIndicatorDTO;
 import com.malak.chatapp.service.TypingIndicatorService;
+import com.malak.chatapp.service.TypingRateLimiter;
 import com.malak.chatapp.service.UserService;
 
 import jakarta.validation.Valid;
@@ -18,16 +20,24 @@ import lombok.RequiredArgsConstructor;
 public class StatusWebSocketController {
     
     private final TypingIndicatorService typingIndicatorService;
+    private final TypingRateLimiter typingRateLimiter;
     private final UserService userService;
     
     /**
      * Handle typing indicator events
      * Client sends: { recipientId: 5, typing: true/false }
+     * Repeated typing=true frames only extend the indicator (see TypingIndicatorService)
      */
-    @MessageMapping("/typing")
-    public void handleTypingIndicator(@Valid @Payload TypingIndicatorDTO dto, Principal principal) {
+    @MessageMapping("typing")
+    public void handleTypingIndicator(@Valid @Payload TypingIndicatorDTO dto, Principal principal,
+    		@Header("simpSessionId") String sessionId) {
+        // Stop frames always go through; start frames over the session's budget are dropped
+        if (dto.isTyping() && !typingRateLimiter.tryAcquire(sessionId)) {
+            return;
+        }
+        
         String username = principal.getName();
-        Long userId = userService.findUserByUsername(username).getId();
+        Long userId = userService.getIdentityByUsername(username).id();
         
         if (dto.isTyping()) {
             typingIndicatorService.userStartedTyping(userId, dto.getRecipientId());
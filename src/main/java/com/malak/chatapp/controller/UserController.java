@@ -12,9 +12,12 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.malak.chatapp.dto.ApiResponse;
 import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.dto.UserSearchPageDto;
 import com.malak.chatapp.service.UserService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -41,14 +44,37 @@ public class UserController {
     }
     
     /**
-     * Search users by username (partial match, case-insensitive)
-     * GET /api/users/search?query=john
+     * Search users by username prefix (case-insensitive), paginated
+     * GET /api/users/search?query=jo&cursor=john&cursorId=42&size=20
      */
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<UserDto>>> searchUsers(
-            @RequestParam @NotBlank(message = "Query must not be blank") String query) {
+    public ResponseEntity<ApiResponse<UserSearchPageDto>> searchUsers(
+            @RequestParam @NotBlank(message = "Query must not be blank") String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "20")
+            @Min(value = 1, message = "Page size must be at least 1")
+            @Max(value = 50, message = "Page size must be at most 50")
+            int size) {
         
-        List<UserDto> results = userService.searchUsersByUsername(query);
+        UserSearchPageDto results = userService.searchUsersByUsername(query, cursor, cursorId, size);
+        return ResponseEntity.ok(ApiResponse.success(results,
+                String.format("Found %d users matching '%s'", results.getUsers().size(), query)));
+    }
+    
+    /**
+     * Search-as-you-type suggestions: prefix matches first, then names a typo away
+     * GET /api/users/autocomplete?query=jhon&limit=10
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<ApiResponse<List<UserDto>>> autocompleteUsers(
+            @RequestParam @NotBlank(message = "Query must not be blank") String query,
+            @RequestParam(defaultValue = "10")
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 20, message = "Limit must be at most 20")
+            int limit) {
+        
+        List<UserDto> results = userService.autocompleteUsernames(query, limit);
         return ResponseEntity.ok(ApiResponse.success(results,
                 String.format("Found %d users matching '%s'", results.size(), query)));
     }
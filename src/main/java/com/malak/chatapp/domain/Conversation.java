@@ -0,0 +1,94 @@
+package com.malak.chatapp.domain;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "conversations",
+    indexes = {
+        @Index(name = "idx_conversation_user2", columnList = "user2_id")
+    },
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uk_conversation_user1_user2",
+            columnNames = {"user1_id", "user2_id"}
+        )
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Conversation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // RULE: user1_id must ALWAYS be less than user2_id (same as Friendship)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user1_id", nullable = false)
+    private User user1;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user2_id", nullable = false)
+    private User user2;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // Receipt high-water marks: highest message id each side has received / read.
+    // Ids are time ordered, so everything at or below the mark counts as delivered / read.
+    @Column(name = "user1_last_delivered_id")
+    private Long user1LastDeliveredId;
+    
+    @Column(name = "user1_last_read_id")
+    private Long user1LastReadId;
+    
+    @Column(name = "user2_last_delivered_id")
+    private Long user2LastDeliveredId;
+    
+    @Column(name = "user2_last_read_id")
+    private Long user2LastReadId;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        
+        // Automatically ensure user1 has smaller ID than user2
+        if (user1 != null && user2 != null && user1.getId() > user2.getId()) {
+            User temp = user1;
+            user1 = user2;
+            user2 = temp;
+        }
+    }
+    
+    // Static factory method to create conversation with correct ordering
+    public static Conversation create(User userA, User userB) {
+        Conversation conversation = new Conversation();
+        if (userA.getId() < userB.getId()) {
+            conversation.setUser1(userA);
+            conversation.setUser2(userB);
+        } else {
+            conversation.setUser1(userB);
+            conversation.setUser2(userA);
+        }
+        return conversation;
+    }
+}
@@ -0,0 +1,85 @@
+package com.malak.chatapp.domain;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Inbox row: one per conversation and participant, kept up to date on every send
+ * so the conversation list never has to touch the messages table.
+ */
+@Entity
+@Table(name = "conversation_summaries",
+    indexes = {
+        // Inbox keyset pagination: owner equality + last_message_id range, newest first
+        @Index(name = "idx_conversation_summary_owner_last", columnList = "owner_id, last_message_id")
+    },
+    uniqueConstraints = {
+        @UniqueConstraint(
+            name = "uk_conversation_summary_conversation_owner",
+            columnNames = {"conversation_id", "owner_id"}
+        )
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummary {
+    
+    public static final int PREVIEW_LENGTH = 100;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id", nullable = false)
+    private Conversation conversation;
+    
+    // The user whose inbox this row belongs to
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+    
+    // The other participant
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "peer_id", nullable = false)
+    private User peer;
+    
+    // Null only between row creation and the first summary update
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+    
+    @Column(name = "last_message_preview", length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+    
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+    
+    // Messages to the owner above the owner's read mark (see ReceiptService)
+    @Column(name = "unread_count", nullable = false)
+    private int unreadCount;
+    
+    public static ConversationSummary create(Conversation conversation, User owner, User peer) {
+        ConversationSummary summary = new ConversationSummary();
+        summary.setConversation(conversation);
+        summary.setOwner(owner);
+        summary.setPeer(peer);
+        return summary;
+    }
+}
@@ -0,0 +1,36 @@
+package com.malak.chatapp.domain;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Per-user offline delivery cursor: the highest message id the user's client
+ * acknowledged as received. Message ids are time ordered across conversations,
+ * so everything above the cursor is what the user missed.
+ */
+@Entity
+@Table(name = "delivery_cursors")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryCursor {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "last_delivered_id", nullable = false)
+    private Long lastDeliveredId;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
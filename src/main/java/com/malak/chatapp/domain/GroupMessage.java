@@ -0,0 +1,54 @@
+package com.malak.chatapp.domain;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One row per group post, whatever the member count: delivery fans out
+ * through the group's topic, not through per-member copies.
+ */
+@Entity
+@Table(name = "group_messages",
+    indexes = {
+        // Keyset pagination over a group: single-key equality + id range
+        @Index(name = "idx_group_messages_group_id", columnList = "group_id, id")
+    }
+)
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class GroupMessage {
+	
+	@Id
+	@TimeOrderedId
+	private Long id;
+	
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "group_id", nullable = false)
+	private ChatGroup group;
+	
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "sender_id", nullable = false)
+	private User sender;
+	
+	private String content;
+	
+	@CreationTimestamp
+	@Column(name = "created_at", nullable = false, updatable = false)
+	private LocalDateTime createdAt;
+}
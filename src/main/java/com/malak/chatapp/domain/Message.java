@@ -6,9 +6,9 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -18,21 +18,36 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+    indexes = {
+        // Keyset pagination over a conversation: single-key equality + id range
+        @Index(name = "idx_messages_conversation_id", columnList = "conversation_id, id"),
+        // Offline replay: everything a user received above their delivery cursor
+        @Index(name = "idx_messages_receiver_id", columnList = "receiver_id, id")
+    }
+)
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 public class Message {
+	// Time ordered instead of IDENTITY: lets Hibernate batch inserts and
+	// lets the write-behind path hand out ids before the row exists
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@TimeOrderedId
 	private Long id;
 	
-	@ManyToOne
+	// Nullable only for rows written before conversations existed (see ConversationBackfillListener)
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "conversation_id")
+	private Conversation conversation;
+	
+	// Lazy: reads go through MessageDTO projections, not the entity graph
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "sender_id")
 	private User sender;
 	
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "receiver_id")
 	private User receiver;
 	private String content;
@@ -0,0 +1,19 @@
+package com.malak.chatapp.domain;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Marks an id that is assigned by {@link TimeOrderedIdGenerator} before insert,
+ * so the value is known without a database round-trip.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface TimeOrderedId {
+}
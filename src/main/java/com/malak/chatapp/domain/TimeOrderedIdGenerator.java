@@ -0,0 +1,61 @@
+package com.malak.chatapp.domain;
+
+import java.util.EnumSet;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * Snowflake style 64-bit ids: 41 bits of milliseconds since 2024-01-01,
+ * 10 bits of node id and a 12 bit per-millisecond sequence.
+ * Ids grow with time, so ordering by id is ordering by creation (keyset pagination
+ * relies on this) and they can be handed out before the row is written.
+ */
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+	
+	private static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+	private static final int NODE_BITS = 10;
+	private static final int SEQUENCE_BITS = 12;
+	private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+	
+	private static volatile long nodeId = 0;
+	private static long lastTimestamp = -1;
+	private static long sequence = 0;
+	
+	public static void setNodeId(long id) {
+		if (id < 0 || id > MAX_NODE_ID) {
+			throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+		}
+		nodeId = id;
+	}
+	
+	public static synchronized long nextId() {
+		long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp); // never go back in time
+		if (timestamp == lastTimestamp) {
+			sequence = (sequence + 1) & SEQUENCE_MASK;
+			if (sequence == 0) {
+				// Sequence exhausted for this millisecond, borrow the next one
+				timestamp = lastTimestamp + 1;
+			}
+		} else {
+			sequence = 0;
+		}
+		lastTimestamp = timestamp;
+		return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS))
+				| (nodeId << SEQUENCE_BITS)
+				| sequence;
+	}
+	
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+		return nextId();
+	}
+	
+	@Override
+	public EnumSet<EventType> getEventTypes() {
+		return EventTypeSets.INSERT_ONLY;
+	}
+}
@@ -1,5 +1,7 @@
 package com.malak.chatapp.domain;
 
+import java.util.Locale;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -7,6 +9,9 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,15 +25,31 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name = "users")
+@Table(name = "users", indexes = {
+		// Prefix search and its keyset order (see UserRepository.searchByUsernamePrefix)
+		@Index(name = "idx_users_username_lower", columnList = "username_lower, id")
+})
 public class User {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
 	@Column(unique = true, nullable = false)
 	private String username;
+	// Lowercased copy of username, kept in sync on every write, so search never wraps the column in LOWER()
+	@Column(name = "username_lower", nullable = false)
+	private String usernameLower;
 	@Column(nullable = false)
 	private String password;
 	@Enumerated(EnumType.STRING)
 	private Role role;
+	
+	@PrePersist
+	@PreUpdate
+	void normalizeUsername() {
+		usernameLower = normalize(username);
+	}
+	
+	public static String normalize(String username) {
+		return username == null ? null : username.toLowerCase(Locale.ROOT);
+	}
 }
@@ -0,0 +1,13 @@
+package com.malak.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+public record ConversationSummaryDto(
+    Long conversationId,
+    Long peerId,
+    String peerUsername,
+    Long lastMessageId,        // Also the inbox cursor
+    String lastMessagePreview, // First ConversationSummary.PREVIEW_LENGTH characters
+    LocalDateTime lastMessageAt,
+    int unreadCount
+) {}
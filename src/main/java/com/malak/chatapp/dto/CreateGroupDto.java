@@ -0,0 +1,27 @@
+package com.malak.chatapp.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateGroupDto {
+	@NotBlank(message = "Group name is required")
+	@Size(max = 100, message = "Group name must be at most 100 characters")
+	@Schema(example = "Weekend plans")
+	private String name;
+	
+	// Initial members besides the creator, who is always added
+	private List<Long> memberIds;
+}
@@ -0,0 +1,6 @@
+package com.malak.chatapp.dto;
+
+public enum CursorDirection {
+	BEFORE, // Older messages than the cursor
+	AFTER   // Newer messages than the cursor
+}
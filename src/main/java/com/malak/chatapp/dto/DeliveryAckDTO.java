@@ -0,0 +1,10 @@
+package com.malak.chatapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record DeliveryAckDTO(
+    @NotNull(message = "messageId must be not null")
+    @Positive(message = "messageId must be positive")
+    Long messageId // Highest message id the client has received, across all conversations
+) {}
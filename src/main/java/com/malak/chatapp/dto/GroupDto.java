@@ -0,0 +1,10 @@
+package com.malak.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+public record GroupDto(
+    Long id,
+    String name,
+    Long ownerId,
+    LocalDateTime createdAt
+) {}
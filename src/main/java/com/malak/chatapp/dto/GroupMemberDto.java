@@ -0,0 +1,9 @@
+package com.malak.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+public record GroupMemberDto(
+    Long userId,
+    String username,
+    LocalDateTime joinedAt
+) {}
@@ -0,0 +1,14 @@
+package com.malak.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record GroupMessageDTO(
+    Long id,
+    Long groupId,
+    String sender,      // Username, taken from the principal on send
+    @NotBlank(message = "Message must be not null or blank")
+    String content,
+    LocalDateTime timestamp
+) {}
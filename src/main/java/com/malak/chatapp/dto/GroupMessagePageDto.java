@@ -0,0 +1,18 @@
+package com.malak.chatapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupMessagePageDto {
+    private List<GroupMessageDTO> messages; // Always ordered oldest -> newest
+    private Long nextCursor;                // Pass back as cursor to load older messages, null when empty
+    private boolean hasMore;
+}
@@ -0,0 +1,18 @@
+package com.malak.chatapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxPageDto {
+    private List<ConversationSummaryDto> conversations; // Most recently active first
+    private Long nextCursor;                            // Pass back as cursor to continue, null when empty
+    private boolean hasMore;
+}
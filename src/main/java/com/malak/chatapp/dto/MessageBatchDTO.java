@@ -0,0 +1,11 @@
+package com.malak.chatapp.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+
+public record MessageBatchDTO(
+    String batchId,          // Optional, echoed back so the client can match the results
+    @NotEmpty(message = "messages must not be empty")
+    List<MessageDTO> messages // Only recipient and content are used; items are validated one by one
+) {}
@@ -0,0 +1,22 @@
+package com.malak.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+public record MessageBatchItemResult(
+    int index,              // Position in the submitted batch
+    Long id,                // null when the item was rejected
+    LocalDateTime timestamp,
+    String error            // null when the item was sent
+) {
+    public static MessageBatchItemResult sent(int index, Long id, LocalDateTime timestamp) {
+        return new MessageBatchItemResult(index, id, timestamp, null);
+    }
+    
+    public static MessageBatchItemResult rejected(int index, String error) {
+        return new MessageBatchItemResult(index, null, null, error);
+    }
+    
+    public boolean isSent() {
+        return error == null;
+    }
+}
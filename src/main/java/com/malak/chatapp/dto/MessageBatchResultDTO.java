@@ -0,0 +1,8 @@
+package com.malak.chatapp.dto;
+
+import java.util.List;
+
+public record MessageBatchResultDTO(
+    String batchId,
+    List<MessageBatchItemResult> results // One per submitted item, in submission order
+) {}
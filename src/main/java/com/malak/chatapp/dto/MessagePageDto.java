@@ -0,0 +1,18 @@
+package com.malak.chatapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDto {
+    private List<MessageDTO> messages; // Always ordered oldest -> newest
+    private Long nextCursor;           // Pass back as cursor (same direction) to continue, null when empty
+    private boolean hasMore;
+}
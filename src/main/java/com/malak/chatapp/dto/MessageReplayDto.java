@@ -0,0 +1,17 @@
+package com.malak.chatapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageReplayDto {
+    private List<MessageDTO> messages; // Missed messages, oldest -> newest
+    private boolean hasMore;           // On the last frame: replay limit reached, page the rest via /messages or /api/conversations
+}
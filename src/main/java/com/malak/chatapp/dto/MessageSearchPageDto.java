@@ -0,0 +1,18 @@
+package com.malak.chatapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchPageDto {
+    private List<MessageDTO> messages; // Best match first
+    private int page;
+    private boolean hasMore;
+}
@@ -0,0 +1,24 @@
+package com.malak.chatapp.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptDTO {
+    private Long conversationId;  // Filled in on the way out
+    @NotBlank(message = "peer must be not null or blank")
+    private String peer;          // Inbound: who sent the messages. Outbound: who received / read them
+    @NotNull(message = "messageId must be not null")
+    @Positive(message = "messageId must be positive")
+    private Long messageId;       // Highest message id covered by this receipt
+    @NotNull(message = "type must be not null")
+    private ReceiptType type;
+}
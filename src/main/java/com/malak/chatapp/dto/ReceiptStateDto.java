@@ -0,0 +1,20 @@
+package com.malak.chatapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptStateDto {
+    private Long conversationId;
+    private Long user1Id;              // Always the lower id of the pair
+    private Long user1LastDeliveredId; // null until user1 acknowledges anything
+    private Long user1LastReadId;
+    private Long user2Id;
+    private Long user2LastDeliveredId;
+    private Long user2LastReadId;
+}
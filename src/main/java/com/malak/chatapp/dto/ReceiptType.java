@@ -0,0 +1,6 @@
+package com.malak.chatapp.dto;
+
+public enum ReceiptType {
+	DELIVERED, // Message reached one of the recipient's sessions
+	READ       // Recipient has seen the message (implies DELIVERED)
+}
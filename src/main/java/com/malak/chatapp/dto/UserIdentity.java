@@ -0,0 +1,12 @@
+package com.malak.chatapp.dto;
+
+import com.malak.chatapp.domain.Role;
+
+/**
+ * Immutable user identity (no password) used on the hot path and cached in memory.
+ */
+public record UserIdentity(
+    Long id,
+    String username,
+    Role role
+) {}
@@ -0,0 +1,19 @@
+package com.malak.chatapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchPageDto {
+    private List<UserDto> users; // Ordered by lowercased username, then id
+    private String nextCursor;   // Pass back as cursor (with nextCursorId) to get the next page
+    private Long nextCursorId;   // Pass back as cursorId: tells apart names equal once lowercased
+    private boolean hasMore;
+}
@@ -0,0 +1,19 @@
+package com.malak.chatapp.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSessionsDTO {
+    private Long userId;
+    private int sessionCount;
+    private List<LocalDateTime> connectedAt; // one entry per open session, oldest first
+}
@@ -0,0 +1,27 @@
+package com.malak.chatapp.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.malak.chatapp.domain.ChatGroup;
+import com.malak.chatapp.dto.GroupDto;
+
+@Repository
+public interface ChatGroupRepository extends JpaRepository<ChatGroup, Long> {
+    
+    @Query("SELECT g.owner.id FROM ChatGroup g WHERE g.id = :groupId")
+    Optional<Long> findOwnerId(@Param("groupId") Long groupId);
+    
+    @Query("""
+            SELECT new com.malak.chatapp.dto.GroupDto(g.id, g.name, g.owner.id, g.createdAt)
+            FROM GroupMember m JOIN m.group g
+            WHERE m.user.id = :userId
+            ORDER BY g.id DESC
+            """)
+    List<GroupDto> findGroupsOfUser(@Param("userId") Long userId);
+}
@@ -0,0 +1,64 @@
+package com.malak.chatapp.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malak.chatapp.domain.Conversation;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+    
+    // Callers must pass the ordered pair (user1Id < user2Id)
+    @Query("SELECT c.id FROM Conversation c " +
+           "WHERE c.user1.id = :user1Id AND c.user2.id = :user2Id")
+    Optional<Long> findIdByOrderedUsers(@Param("user1Id") Long user1Id, 
+                                        @Param("user2Id") Long user2Id);
+    
+    @Query("SELECT c FROM Conversation c " +
+           "WHERE c.user1.id = :user1Id AND c.user2.id = :user2Id")
+    Optional<Conversation> findByOrderedUsers(@Param("user1Id") Long user1Id, 
+                                              @Param("user2Id") Long user2Id);
+    
+    // Receipt marks only move forward: the WHERE clause makes a stale or duplicate
+    // receipt a no-op, so the returned row count tells whether the mark advanced.
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE Conversation c SET
+              c.user1LastDeliveredId = CASE WHEN c.user1.id = :userId THEN :messageId ELSE c.user1LastDeliveredId END,
+              c.user2LastDeliveredId = CASE WHEN c.user2.id = :userId THEN :messageId ELSE c.user2LastDeliveredId END
+            WHERE c.id = :conversationId
+              AND ((c.user1.id = :userId AND (c.user1LastDeliveredId IS NULL OR c.user1LastDeliveredId < :messageId))
+                OR (c.user2.id = :userId AND (c.user2LastDeliveredId IS NULL OR c.user2LastDeliveredId < :messageId)))
+            """)
+    int advanceDelivered(@Param("conversationId") Long conversationId,
+                         @Param("userId") Long userId,
+                         @Param("messageId") Long messageId);
+    
+    // Reading a message implies it was delivered, so the delivered mark is raised with it
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE Conversation c SET
+              c.user1LastReadId = CASE WHEN c.user1.id = :userId THEN :messageId ELSE c.user1LastReadId END,
+              c.user1LastDeliveredId = CASE WHEN c.user1.id = :userId
+                    AND (c.user1LastDeliveredId IS NULL OR c.user1LastDeliveredId < :messageId)
+                  THEN :messageId ELSE c.user1LastDeliveredId END,
+              c.user2LastReadId = CASE WHEN c.user2.id = :userId THEN :messageId ELSE c.user2LastReadId END,
+              c.user2LastDeliveredId = CASE WHEN c.user2.id = :userId
+                    AND (c.user2LastDeliveredId IS NULL OR c.user2LastDeliveredId < :messageId)
+                  THEN :messageId ELSE c.user2LastDeliveredId END
+            WHERE c.id = :conversationId
+              AND ((c.user1.id = :userId AND (c.user1LastReadId IS NULL OR c.user1LastReadId < :messageId))
+                OR (c.user2.id = :userId AND (c.user2LastReadId IS NULL OR c.user2LastReadId < :messageId)))
+            """)
+    int advanceRead(@Param("conversationId") Long conversationId,
+                    @Param("userId") Long userId,
+                    @Param("messageId") Long messageId);
+}
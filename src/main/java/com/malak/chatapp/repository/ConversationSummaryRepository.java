@@ -0,0 +1,110 @@
+package com.malak.chatapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malak.chatapp.domain.ConversationSummary;
+import com.malak.chatapp.dto.ConversationSummaryDto;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+    
+    // Keyset page of an inbox, most recently active conversation first
+    @Query("""
+            SELECT new com.malak.chatapp.dto.ConversationSummaryDto(
+                s.conversation.id, p.id, p.username, s.lastMessageId, s.lastMessagePreview,
+                s.lastMessageAt, s.unreadCount)
+            FROM ConversationSummary s JOIN s.peer p
+            WHERE s.owner.id = :ownerId
+              AND s.lastMessageId < :before
+            ORDER BY s.lastMessageId DESC
+            """)
+    List<ConversationSummaryDto> findInboxBefore(@Param("ownerId") Long ownerId,
+                                                 @Param("before") Long before,
+                                                 Pageable pageable);
+    
+    boolean existsByConversationIdAndOwnerId(Long conversationId, Long ownerId);
+    
+    @Query("SELECT COALESCE(SUM(s.unreadCount), 0) FROM ConversationSummary s WHERE s.owner.id = :ownerId")
+    long sumUnreadByOwnerId(@Param("ownerId") Long ownerId);
+    
+    /**
+     * Apply one or more new messages to both rows of a conversation in a single statement.
+     * The last-message columns only move forward (write-behind batches may land out of order);
+     * last_message_id is assigned last so the CASE conditions see the old value everywhere.
+     * Only messages above the owner's read mark count as unread: with write-behind a message
+     * can be delivered and read before its batch is written, and must not come back unread.
+     * The messages must already be stored. Returns the number of rows touched, 2 once both
+     * summaries exist.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ConversationSummary s SET
+              s.unreadCount = s.unreadCount + (
+                  SELECT COUNT(m) FROM Message m JOIN m.conversation c
+                  WHERE m.id IN :messageIds
+                    AND m.receiver.id = s.owner.id
+                    AND m.id > COALESCE(CASE WHEN c.user1.id = s.owner.id
+                        THEN c.user1LastReadId ELSE c.user2LastReadId END, 0)),
+              s.lastMessagePreview = CASE WHEN s.lastMessageId IS NULL OR s.lastMessageId < :messageId
+                  THEN :preview ELSE s.lastMessagePreview END,
+              s.lastMessageAt = CASE WHEN s.lastMessageId IS NULL OR s.lastMessageId < :messageId
+                  THEN :sentAt ELSE s.lastMessageAt END,
+              s.lastMessageId = CASE WHEN s.lastMessageId IS NULL OR s.lastMessageId < :messageId
+                  THEN :messageId ELSE s.lastMessageId END
+            WHERE s.conversation.id = :conversationId
+            """)
+    int applyMessages(@Param("conversationId") Long conversationId,
+                      @Param("messageId") Long messageId,
+                      @Param("preview") String preview,
+                      @Param("sentAt") LocalDateTime sentAt,
+                      @Param("messageIds") Collection<Long> messageIds);
+    
+    // Common case: the owner read up to (or past) the newest message
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ConversationSummary s SET s.unreadCount = 0
+            WHERE s.conversation.id = :conversationId
+              AND s.owner.id = :ownerId
+              AND s.lastMessageId <= :readId
+              AND s.unreadCount > 0
+            """)
+    int clearUnread(@Param("conversationId") Long conversationId,
+                    @Param("ownerId") Long ownerId,
+                    @Param("readId") Long readId);
+    
+    // Read mark somewhere in the middle: recount what is left above it (idx_messages_conversation_id range)
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ConversationSummary s SET s.unreadCount = (
+                SELECT COUNT(m) FROM Message m
+                WHERE m.conversation.id = :conversationId
+                  AND m.receiver.id = :ownerId
+                  AND m.id > :readId)
+            WHERE s.conversation.id = :conversationId
+              AND s.owner.id = :ownerId
+              AND s.lastMessageId > :readId
+            """)
+    int recountUnread(@Param("conversationId") Long conversationId,
+                      @Param("ownerId") Long ownerId,
+                      @Param("readId") Long readId);
+    
+    // Conversations that predate the summaries table (see ConversationSummaryService#backfillMissingSummaries)
+    @Query("""
+            SELECT c.id FROM Conversation c
+            WHERE NOT EXISTS (SELECT 1 FROM ConversationSummary s WHERE s.conversation = c)
+            """)
+    List<Long> findConversationIdsWithoutSummary();
+}
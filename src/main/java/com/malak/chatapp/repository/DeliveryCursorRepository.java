@@ -0,0 +1,31 @@
+package com.malak.chatapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malak.chatapp.domain.DeliveryCursor;
+
+@Repository
+public interface DeliveryCursorRepository extends JpaRepository<DeliveryCursor, Long> {
+    
+    @Query("SELECT d.lastDeliveredId FROM DeliveryCursor d WHERE d.userId = :userId")
+    Optional<Long> findLastDeliveredId(@Param("userId") Long userId);
+    
+    // Forward only: returns 0 for a stale ack or when the user has no cursor yet
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE DeliveryCursor d SET d.lastDeliveredId = :messageId, d.updatedAt = :now
+            WHERE d.userId = :userId AND d.lastDeliveredId < :messageId
+            """)
+    int advance(@Param("userId") Long userId,
+                @Param("messageId") Long messageId,
+                @Param("now") LocalDateTime now);
+}
@@ -2,6 +2,9 @@ package com.malak.chatapp.repository;
 
 import com.malak.chatapp.domain.Friendship;
 import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.dto.UserIdentity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -25,6 +28,18 @@ public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
 		    )
 		    """)
     List<User> getFriendsForUserId(@Param("userId") Long userId);
+	
+	// Friends as (id, username, role) in one query, used by presence fan-out
+	@Query("""
+		    SELECT new com.malak.chatapp.dto.UserIdentity(u.id, u.username, u.role) FROM User u
+		    WHERE u.id IN (
+		       SELECT f.user2.id FROM Friendship f WHERE f.user1.id = :userId
+		    )
+		    OR u.id IN (
+		       SELECT f.user1.id FROM Friendship f WHERE f.user2.id = :userId
+		    )
+		    """)
+	List<UserIdentity> getFriendIdentitiesForUserId(@Param("userId") Long userId);
     
     // Get all friendship records involving a user
     @Query("SELECT f FROM Friendship f " +
@@ -79,16 +94,21 @@ public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
     List<User> findMutualFriends(@Param("userId1") Long userId1, 
                                   @Param("userId2") Long userId2);
     
-    // Search friends by username - FIXED: Proper join
-    @Query("SELECT u FROM User u " +
-           "WHERE u.id IN (" +
-           "  SELECT CASE WHEN f.user1.id = :userId THEN f.user2.id ELSE f.user1.id END " +
-           "  FROM Friendship f " +
-           "  WHERE (f.user1.id = :userId OR f.user2.id = :userId)" +
-           ") " +
-           "AND LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<User> searchFriends(@Param("userId") Long userId, 
-                             @Param("searchTerm") String searchTerm);
+    // Prefix search over friends on the normalized username, keyset-paginated on (usernameLower, id)
+    @Query("""
+            SELECT new com.malak.chatapp.dto.UserDto(u.id, u.username, u.role)
+            FROM User u
+            WHERE u.usernameLower LIKE :pattern ESCAPE '\\'
+              AND (u.usernameLower > :after OR (u.usernameLower = :after AND u.id > :afterId))
+              AND (u.id IN (SELECT f.user2.id FROM Friendship f WHERE f.user1.id = :userId)
+                OR u.id IN (SELECT f.user1.id FROM Friendship f WHERE f.user2.id = :userId))
+            ORDER BY u.usernameLower ASC, u.id ASC
+            """)
+    List<UserDto> searchFriendsByUsernamePrefix(@Param("userId") Long userId,
+                                                @Param("pattern") String pattern,
+                                                @Param("after") String after,
+                                                @Param("afterId") long afterId,
+                                                Pageable pageable);
     
     // Get friend IDs only (more efficient)
     @Query("SELECT CASE WHEN f.user1.id = :userId THEN f.user2.id ELSE f.user1.id END " +
@@ -0,0 +1,35 @@
+package com.malak.chatapp.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malak.chatapp.domain.GroupMember;
+import com.malak.chatapp.dto.GroupMemberDto;
+
+@Repository
+public interface GroupMemberRepository extends JpaRepository<GroupMember, Long> {
+    
+    // Served by uk_group_member_group_user
+    boolean existsByGroupIdAndUserId(Long groupId, Long userId);
+    
+    long countByGroupId(Long groupId);
+    
+    @Query("""
+            SELECT new com.malak.chatapp.dto.GroupMemberDto(u.id, u.username, m.joinedAt)
+            FROM GroupMember m JOIN m.user u
+            WHERE m.group.id = :groupId
+            ORDER BY m.joinedAt ASC
+            """)
+    List<GroupMemberDto> findMembers(@Param("groupId") Long groupId);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM GroupMember m WHERE m.group.id = :groupId AND m.user.id = :userId")
+    int deleteMember(@Param("groupId") Long groupId, @Param("userId") Long userId);
+}
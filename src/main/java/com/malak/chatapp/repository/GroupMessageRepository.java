@@ -0,0 +1,25 @@
+package com.malak.chatapp.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.malak.chatapp.domain.GroupMessage;
+import com.malak.chatapp.dto.GroupMessageDTO;
+
+@Repository
+public interface GroupMessageRepository extends JpaRepository<GroupMessage, Long> {
+    
+    // Keyset page of group messages older than :before (newest first)
+    @Query("""
+            SELECT new com.malak.chatapp.dto.GroupMessageDTO(m.id, m.group.id, s.username, m.content, m.createdAt)
+            FROM GroupMessage m JOIN m.sender s
+            WHERE m.group.id = :groupId
+              AND m.id < :before
+            ORDER BY m.id DESC
+            """)
+    List<GroupMessageDTO> findGroupBefore(Long groupId, Long before, Pageable pageable);
+}
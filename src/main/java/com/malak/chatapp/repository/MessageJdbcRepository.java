@@ -0,0 +1,51 @@
+package com.malak.chatapp.repository;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malak.chatapp.domain.Message;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Plain JDBC writes for messages whose id is already assigned,
+ * sent to the database as a single batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MessageJdbcRepository {
+	
+	private static final String INSERT_SQL =
+			"INSERT INTO messages (id, conversation_id, sender_id, receiver_id, content, created_at) " +
+			"VALUES (?, ?, ?, ?, ?, ?)";
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	// All or nothing, so a failed batch can be retried or split without duplicate keys
+	@Transactional
+	public void batchInsert(List<Message> messages) {
+		jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+			ps.setLong(1, message.getId());
+			ps.setObject(2, message.getConversation() == null ? null : message.getConversation().getId());
+			ps.setLong(3, message.getSender().getId());
+			ps.setLong(4, message.getReceiver().getId());
+			ps.setString(5, message.getContent());
+			ps.setTimestamp(6, Timestamp.valueOf(message.getCreatedAt()));
+		});
+	}
+	
+	// Which of ids are already stored (ids come from the write-behind dead-letter file, so few)
+	public List<Long> findExistingIds(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+		String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+		return jdbcTemplate.queryForList("SELECT id FROM messages WHERE id IN (" + placeholders + ")",
+				Long.class, ids.toArray());
+	}
+}
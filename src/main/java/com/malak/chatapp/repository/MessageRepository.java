@@ -1,24 +1,108 @@
 package com.malak.chatapp.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.malak.chatapp.domain.Conversation;
 import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.dto.MessageDTO;
 
 public interface MessageRepository extends JpaRepository<Message, Long>{
 	
-	List<Message> findBySenderId(Long senderId);
+    // Reads project straight into MessageDTO: one join for the two usernames,
+    // no User entities (or password hashes) loaded into the persistence context
 
-    List<Message> findByReceiverId(Long receiverId);
+    @Query("""
+            SELECT new com.malak.chatapp.dto.MessageDTO(m.id, s.username, r.username, m.content, m.createdAt)
+            FROM Message m JOIN m.sender s JOIN m.receiver r
+            WHERE s.id = :senderId
+            ORDER BY m.id ASC
+            """)
+    List<MessageDTO> findBySenderId(Long senderId);
+
+    @Query("""
+            SELECT new com.malak.chatapp.dto.MessageDTO(m.id, s.username, r.username, m.content, m.createdAt)
+            FROM Message m JOIN m.sender s JOIN m.receiver r
+            WHERE r.id = :receiverId
+            ORDER BY m.id ASC
+            """)
+    List<MessageDTO> findByReceiverId(Long receiverId);
+
+    // Keyset page of messages older than :before (newest first)
+    @Query("""
+            SELECT new com.malak.chatapp.dto.MessageDTO(m.id, s.username, r.username, m.content, m.createdAt)
+            FROM Message m JOIN m.sender s JOIN m.receiver r
+            WHERE m.conversation.id = :conversationId
+              AND m.id < :before
+            ORDER BY m.id DESC
+            """)
+    List<MessageDTO> findConversationBefore(Long conversationId, Long before, Pageable pageable);
+
+    // Keyset page of messages newer than :after (oldest first)
+    @Query("""
+            SELECT new com.malak.chatapp.dto.MessageDTO(m.id, s.username, r.username, m.content, m.createdAt)
+            FROM Message m JOIN m.sender s JOIN m.receiver r
+            WHERE m.conversation.id = :conversationId
+              AND m.id > :after
+            ORDER BY m.id ASC
+            """)
+    List<MessageDTO> findConversationAfter(Long conversationId, Long after, Pageable pageable);
+
+    // Offline replay: messages received above the delivery cursor (oldest first)
+    @Query("""
+            SELECT new com.malak.chatapp.dto.MessageDTO(m.id, s.username, r.username, m.content, m.createdAt)
+            FROM Message m JOIN m.sender s JOIN m.receiver r
+            WHERE r.id = :receiverId
+              AND m.id > :after
+            ORDER BY m.id ASC
+            """)
+    List<MessageDTO> findReceivedAfter(Long receiverId, Long after, Pageable pageable);
+
+    // Search result pages (see InMemoryMessageSearchIndex), in no particular order
+    @Query("""
+            SELECT new com.malak.chatapp.dto.MessageDTO(m.id, s.username, r.username, m.content, m.createdAt)
+            FROM Message m JOIN m.sender s JOIN m.receiver r
+            WHERE m.id IN :ids
+            """)
+    List<MessageDTO> findDtosByIdIn(Collection<Long> ids);
 
+    // In-memory search index rebuild: id, sender id, receiver id, content in id order
     @Query("""
-            SELECT m FROM Message m 
-            WHERE (m.sender.id = :user1 AND m.receiver.id = :user2)
-               OR (m.sender.id = :user2 AND m.receiver.id = :user1)
+            SELECT m.id, m.sender.id, m.receiver.id, m.content FROM Message m
+            WHERE m.id > :after
             ORDER BY m.id ASC
             """)
-    List<Message> findConversation(Long user1, Long user2);
+    List<Object[]> findSearchRowsAfter(Long after, Pageable pageable);
+
+    // Upper bound for receipts: nothing above the peer's newest message can be delivered or read
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.conversation.id = :conversationId AND m.sender.id = :senderId")
+    Long findLatestIdFromSender(Long conversationId, Long senderId);
+
+    // Messages to a participant above their read mark (summary backfill)
+    long countByConversationIdAndReceiverIdAndIdGreaterThan(Long conversationId, Long receiverId, Long afterId);
+
+    // ---- Conversation backfill (messages stored before conversations existed) ----
+
+    @Query("""
+            SELECT DISTINCT m.sender.id, m.receiver.id FROM Message m 
+            WHERE m.conversation IS NULL
+            """)
+    List<Object[]> findUserPairsWithoutConversation();
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE Message m SET m.conversation = :conversation
+            WHERE m.conversation IS NULL
+              AND ((m.sender.id = :user1 AND m.receiver.id = :user2)
+                OR (m.sender.id = :user2 AND m.receiver.id = :user1))
+            """)
+    int assignConversation(Conversation conversation, Long user1, Long user2);
 
 }
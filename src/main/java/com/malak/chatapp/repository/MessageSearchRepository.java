@@ -0,0 +1,104 @@
+package com.malak.chatapp.repository;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.malak.chatapp.dto.MessageDTO;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * PostgreSQL full-text search over messages.content. The tsvector is a stored generated
+ * column (content_tsv): PostgreSQL computes it once per insert, the GIN index is built on
+ * it, and neither the match nor ts_rank re-parses content at query time.
+ * A search is scoped to the caller's conversations first, so the planner can start from
+ * idx_conversation_user2 / uk_conversation_user1_user2 and idx_messages_conversation_id
+ * (or AND that with the GIN index) instead of ranking every match in the table.
+ * The text search configuration is inlined: the generated column needs a constant, and
+ * the query must use the same one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MessageSearchRepository {
+	
+	// pg_get_expr renders the configuration as 'simple'::regconfig
+	private static final Pattern REGCONFIG = Pattern.compile("'([a-z_]+)'::regconfig");
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	/**
+	 * Text search configuration content_tsv is generated with, or null when the column is missing.
+	 */
+	public String findContentTsvConfig() {
+		List<String> existing = jdbcTemplate.queryForList(
+				"SELECT pg_get_expr(d.adbin, d.adrelid) FROM pg_attrdef d " +
+				"JOIN pg_attribute a ON a.attrelid = d.adrelid AND a.attnum = d.adnum " +
+				"WHERE d.adrelid = 'messages'::regclass AND a.attname = 'content_tsv'",
+				String.class);
+		if (existing.isEmpty()) {
+			return null;
+		}
+		Matcher matcher = REGCONFIG.matcher(existing.get(0));
+		return matcher.find() ? matcher.group(1) : "";
+	}
+	
+	public boolean indexExists() {
+		return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+				"SELECT to_regclass('idx_messages_content_tsv') IS NOT NULL", Boolean.class));
+	}
+	
+	/**
+	 * Same DDL as db/message-search.sql, for schemas the application owns (ddl-auto=create-drop).
+	 * Adds content_tsv (rewriting the table once, under an exclusive lock) and its GIN index.
+	 * A column generated with another configuration is dropped and rebuilt. Returns true when
+	 * the column had to be (re)built.
+	 */
+	public boolean createIndex(String config) {
+		String existing = findContentTsvConfig();
+		boolean current = config.equals(existing);
+		if (existing != null && !current) {
+			jdbcTemplate.execute("ALTER TABLE messages DROP COLUMN content_tsv");
+		}
+		if (!current) {
+			jdbcTemplate.execute(
+					"ALTER TABLE messages ADD COLUMN content_tsv tsvector " +
+					"GENERATED ALWAYS AS (to_tsvector('" + config + "', coalesce(content, ''))) STORED");
+		}
+		jdbcTemplate.execute(
+				"CREATE INDEX IF NOT EXISTS idx_messages_content_tsv ON messages USING GIN (content_tsv)");
+		// Expression index used before the stored column existed
+		jdbcTemplate.execute("DROP INDEX IF EXISTS idx_messages_content_fts");
+		return !current;
+	}
+	
+	// Fetches limit rows; callers ask for one more than the page size to detect the next page
+	public List<MessageDTO> search(String config, Long userId, String query, int limit, int offset) {
+		String sql =
+				"WITH mine AS (" +
+				"  SELECT c.id FROM conversations c WHERE c.user1_id = ? " +
+				"  UNION ALL " +
+				"  SELECT c.id FROM conversations c WHERE c.user2_id = ?" +
+				") " +
+				"SELECT m.id, s.username AS sender, r.username AS recipient, m.content, m.created_at, " +
+				"       ts_rank(m.content_tsv, q) AS rank " +
+				"FROM mine " +
+				"JOIN messages m ON m.conversation_id = mine.id " +
+				"JOIN users s ON s.id = m.sender_id " +
+				"JOIN users r ON r.id = m.receiver_id " +
+				"CROSS JOIN plainto_tsquery('" + config + "', ?) q " +
+				"WHERE m.content_tsv @@ q " +
+				"ORDER BY rank DESC, m.id DESC " +
+				"LIMIT ? OFFSET ?";
+		return jdbcTemplate.query(sql, (rs, rowNum) -> new MessageDTO(
+				rs.getLong("id"),
+				rs.getString("sender"),
+				rs.getString("recipient"),
+				rs.getString("content"),
+				rs.getTimestamp("created_at").toLocalDateTime()),
+				userId, userId, query, limit, offset);
+	}
+}
@@ -0,0 +1,53 @@
+package com.malak.chatapp.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared storage behind SharedPresenceStore. Every method that changes more than
+ * one structure must be atomic, since several instances call it concurrently.
+ * Each session and typing entry records the instance (node) that owns it, so a
+ * dead node's entries can be removed in one call.
+ */
+public interface PresenceBackend {
+    
+    record SessionEntry(String nodeId, long connectedAtMs) {}
+    
+    /**
+     * Add the session; returns the user's session count afterwards.
+     */
+    int addSession(long userId, String sessionId, String nodeId, long connectedAtMs);
+    
+    /**
+     * Remove the session; returns the user's remaining session count, or -1 if it was not there.
+     */
+    int removeSession(long userId, String sessionId);
+    
+    Map<String, SessionEntry> getSessions(long userId);
+    
+    Set<Long> getOnlineUserIds();
+    
+    void setLastSeen(long userId, long lastSeenMs);
+    
+    Long getLastSeen(long userId);
+    
+    void setTyping(long userId, long recipientId, String nodeId);
+    
+    void clearTyping(long userId, long recipientId);
+    
+    boolean isTyping(long userId, long recipientId);
+    
+    void renewLease(String nodeId, long leaseUntilMs);
+    
+    /**
+     * nodeId -> lease expiry (epoch ms)
+     */
+    Map<String, Long> getLeases();
+    
+    /**
+     * Delete the node's lease and every session and typing entry it owns.
+     * Returns the users left with no sessions. Removing an unknown node returns an empty list.
+     */
+    List<Long> removeNode(String nodeId);
+}
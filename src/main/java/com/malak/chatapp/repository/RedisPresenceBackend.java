@@ -0,0 +1,185 @@
+package com.malak.chatapp.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Redis implementation of the presence backend.
+ *
+ * chat:presence:sessions:{userId}   hash  sessionId -> "nodeId|connectedAtMs"
+ * chat:presence:online              set   userIds with at least one session
+ * chat:presence:node:{nodeId}:sessions  set "userId|sessionId" owned by the node
+ * chat:presence:node:{nodeId}:typing    set "userId:recipientId" owned by the node
+ * chat:presence:typing              hash  "userId:recipientId" -> nodeId
+ * chat:presence:leases              hash  nodeId -> lease expiry ms
+ * chat:presence:last-seen           hash  userId -> ms
+ *
+ * Multi-key updates run as Lua scripts so they are atomic. The scripts build some key
+ * names themselves, which is fine for a single Redis (or Sentinel) but not Redis Cluster.
+ */
+@Repository
+@ConditionalOnProperty(name = "chat.presence.store", havingValue = "shared")
+@RequiredArgsConstructor
+public class RedisPresenceBackend implements PresenceBackend {
+    
+    private static final String PREFIX = "chat:presence:";
+    private static final String SESSIONS = PREFIX + "sessions:";
+    private static final String ONLINE = PREFIX + "online";
+    private static final String NODE = PREFIX + "node:";
+    private static final String TYPING = PREFIX + "typing";
+    private static final String LEASES = PREFIX + "leases";
+    private static final String LAST_SEEN = PREFIX + "last-seen";
+    
+    private static final RedisScript<Long> ADD_SESSION = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('SADD', KEYS[2], ARGV[3])
+            redis.call('SADD', KEYS[3], ARGV[3] .. '|' .. ARGV[1])
+            return redis.call('HLEN', KEYS[1])
+            """, Long.class);
+    
+    private static final RedisScript<Long> REMOVE_SESSION = new DefaultRedisScript<>("""
+            local entry = redis.call('HGET', KEYS[1], ARGV[1])
+            if not entry then return -1 end
+            redis.call('HDEL', KEYS[1], ARGV[1])
+            local node = string.sub(entry, 1, string.find(entry, '|', 1, true) - 1)
+            redis.call('SREM', ARGV[3] .. node .. ':sessions', ARGV[2] .. '|' .. ARGV[1])
+            local remaining = redis.call('HLEN', KEYS[1])
+            if remaining == 0 then redis.call('SREM', KEYS[2], ARGV[2]) end
+            return remaining
+            """, Long.class);
+    
+    private static final RedisScript<Long> SET_TYPING = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            return redis.call('SADD', KEYS[2], ARGV[1])
+            """, Long.class);
+    
+    private static final RedisScript<Long> CLEAR_TYPING = new DefaultRedisScript<>("""
+            local node = redis.call('HGET', KEYS[1], ARGV[1])
+            if not node then return 0 end
+            redis.call('HDEL', KEYS[1], ARGV[1])
+            return redis.call('SREM', ARGV[2] .. node .. ':typing', ARGV[1])
+            """, Long.class);
+    
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REMOVE_NODE = new DefaultRedisScript<>("""
+            local offline = {}
+            for _, member in ipairs(redis.call('SMEMBERS', KEYS[1])) do
+              local sep = string.find(member, '|', 1, true)
+              local userId = string.sub(member, 1, sep - 1)
+              local sessions = ARGV[1] .. userId
+              if redis.call('HDEL', sessions, string.sub(member, sep + 1)) == 1
+                  and redis.call('HLEN', sessions) == 0 then
+                redis.call('SREM', KEYS[2], userId)
+                table.insert(offline, userId)
+              end
+            end
+            for _, field in ipairs(redis.call('SMEMBERS', KEYS[3])) do
+              if redis.call('HGET', KEYS[4], field) == ARGV[2] then redis.call('HDEL', KEYS[4], field) end
+            end
+            redis.call('DEL', KEYS[1], KEYS[3])
+            redis.call('HDEL', KEYS[5], ARGV[2])
+            return offline
+            """, List.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    
+    @Override
+    public int addSession(long userId, String sessionId, String nodeId, long connectedAtMs) {
+        Long count = redisTemplate.execute(ADD_SESSION,
+                List.of(SESSIONS + userId, ONLINE, NODE + nodeId + ":sessions"),
+                sessionId, nodeId + "|" + connectedAtMs, String.valueOf(userId));
+        return count.intValue();
+    }
+    
+    @Override
+    public int removeSession(long userId, String sessionId) {
+        Long remaining = redisTemplate.execute(REMOVE_SESSION,
+                List.of(SESSIONS + userId, ONLINE),
+                sessionId, String.valueOf(userId), NODE);
+        return remaining.intValue();
+    }
+    
+    @Override
+    public Map<String, SessionEntry> getSessions(long userId) {
+        Map<Object, Object> raw = redisTemplate.opsForHash().entries(SESSIONS + userId);
+        Map<String, SessionEntry> sessions = new HashMap<>();
+        raw.forEach((sessionId, value) -> {
+            String entry = (String) value;
+            int sep = entry.indexOf('|');
+            sessions.put((String) sessionId,
+                    new SessionEntry(entry.substring(0, sep), Long.parseLong(entry.substring(sep + 1))));
+        });
+        return sessions;
+    }
+    
+    @Override
+    public Set<Long> getOnlineUserIds() {
+        return redisTemplate.opsForSet().members(ONLINE).stream()
+                .map(Long::valueOf)
+                .collect(Collectors.toSet());
+    }
+    
+    @Override
+    public void setLastSeen(long userId, long lastSeenMs) {
+        redisTemplate.opsForHash().put(LAST_SEEN, String.valueOf(userId), String.valueOf(lastSeenMs));
+    }
+    
+    @Override
+    public Long getLastSeen(long userId) {
+        Object value = redisTemplate.opsForHash().get(LAST_SEEN, String.valueOf(userId));
+        return value == null ? null : Long.valueOf((String) value);
+    }
+    
+    @Override
+    public void setTyping(long userId, long recipientId, String nodeId) {
+        redisTemplate.execute(SET_TYPING, List.of(TYPING, NODE + nodeId + ":typing"),
+                typingField(userId, recipientId), nodeId);
+    }
+    
+    @Override
+    public void clearTyping(long userId, long recipientId) {
+        redisTemplate.execute(CLEAR_TYPING, List.of(TYPING), typingField(userId, recipientId), NODE);
+    }
+    
+    @Override
+    public boolean isTyping(long userId, long recipientId) {
+        return redisTemplate.opsForHash().hasKey(TYPING, typingField(userId, recipientId));
+    }
+    
+    @Override
+    public void renewLease(String nodeId, long leaseUntilMs) {
+        redisTemplate.opsForHash().put(LEASES, nodeId, String.valueOf(leaseUntilMs));
+    }
+    
+    @Override
+    public Map<String, Long> getLeases() {
+        Map<String, Long> leases = new HashMap<>();
+        redisTemplate.opsForHash().entries(LEASES)
+                .forEach((nodeId, until) -> leases.put((String) nodeId, Long.valueOf((String) until)));
+        return leases;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> removeNode(String nodeId) {
+        List<String> offline = redisTemplate.execute(REMOVE_NODE,
+                List.of(NODE + nodeId + ":sessions", ONLINE, NODE + nodeId + ":typing", TYPING, LEASES),
+                SESSIONS, nodeId);
+        return offline.stream().map(Long::valueOf).toList();
+    }
+    
+    private static String typingField(long userId, long recipientId) {
+        return userId + ":" + recipientId;
+    }
+}
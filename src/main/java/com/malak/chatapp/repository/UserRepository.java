@@ -3,16 +3,40 @@ package com.malak.chatapp.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.dto.UserIdentity;
 
 
 public interface UserRepository extends JpaRepository<User, Long>{
 	public Optional<User> findByUsername(String username);
 	
-	@Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<User> searchByUsername(@Param("query") String query);
+	// Prefix match on the normalized column, keyset-paginated on (usernameLower, id): one index range scan
+	// per page, and usernames differing only in case ("John", "john") are neither skipped nor repeated
+	@Query("""
+			SELECT new com.malak.chatapp.dto.UserDto(u.id, u.username, u.role)
+			FROM User u
+			WHERE u.usernameLower LIKE :pattern ESCAPE '\\'
+			  AND (u.usernameLower > :after OR (u.usernameLower = :after AND u.id > :afterId))
+			ORDER BY u.usernameLower ASC, u.id ASC
+			""")
+	List<UserDto> searchByUsernamePrefix(@Param("pattern") String pattern,
+			@Param("after") String after,
+			@Param("afterId") long afterId,
+			Pageable pageable);
+	
+	@Query("SELECT new com.malak.chatapp.dto.UserIdentity(u.id, u.username, u.role) FROM User u WHERE u.username = :username")
+	Optional<UserIdentity> findIdentityByUsername(@Param("username") String username);
+	
+	@Query("SELECT new com.malak.chatapp.dto.UserIdentity(u.id, u.username, u.role) FROM User u WHERE u.id = :id")
+	Optional<UserIdentity> findIdentityById(@Param("id") Long id);
+	
+	// Id-keyset batches for building the in-memory autocomplete index
+	@Query("SELECT new com.malak.chatapp.dto.UserDto(u.id, u.username, u.role) FROM User u WHERE u.id > :after ORDER BY u.id ASC")
+	List<UserDto> findDtosAfter(@Param("after") Long after, Pageable pageable);
 }
@@ -7,6 +7,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import com.malak.chatapp.domain.Role;
 import com.malak.chatapp.domain.User;
 
 import lombok.AllArgsConstructor;
@@ -17,6 +18,15 @@ import lombok.Getter;
 public class CustomUserDetails implements UserDetails{
 	private User user;
 	
+	// Principal rebuilt from verified JWT claims (no password, nothing loaded from the DB)
+	public static CustomUserDetails fromClaims(Long userId, String username, Role role) {
+		return new CustomUserDetails(User.builder()
+				.id(userId)
+				.username(username)
+				.role(role)
+				.build());
+	}
+	
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
 		return Collections.singleton(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
@@ -1,12 +1,16 @@
 package com.malak.chatapp.secuirty;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.malak.chatapp.domain.Role;
 import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.UserIdentity;
 import com.malak.chatapp.repository.UserRepository;
+import com.malak.chatapp.service.UserIdentityCache;
 
 import lombok.RequiredArgsConstructor;
 
@@ -14,6 +18,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService{
 	private final UserRepository userRepository;
+	private final UserIdentityCache userIdentityCache;
+	
+	// true: trust the verified uid/role claims and never look the user up per request
+	@Value("${jwt.stateless-auth:true}")
+	private boolean statelessAuth;
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -21,4 +30,18 @@ public class CustomUserDetailsService implements UserDetailsService{
 		return new CustomUserDetails(user);	
 	}
 
+	/**
+	 * Principal for a request that already carries a valid JWT, has no password so it
+	 * must not be used for login. In stateless mode it is built from the token claims alone;
+	 * otherwise (or for old tokens without a uid claim) it comes from the identity cache.
+	 */
+	public UserDetails loadTokenUser(JwtClaims claims) throws UsernameNotFoundException {
+		String username = claims.subject();
+		if (statelessAuth && claims.userId() != null && claims.role() != null) {
+			return CustomUserDetails.fromClaims(claims.userId(), username, Role.valueOf(claims.role()));
+		}
+		UserIdentity identity = userIdentityCache.findByUsername(username).orElseThrow(() -> new UsernameNotFoundException("username not found with username " + username));
+		return CustomUserDetails.fromClaims(identity.id(), identity.username(), identity.role());
+	}
+
 }
@@ -32,8 +32,8 @@ public class JwtAuthFilter extends OncePerRequestFilter  {
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
-		// 1. Skip WebSocket handshake paths
-	    if (request.getServletPath().startsWith("/chat")) {
+		// 1. Skip WebSocket handshake paths (SockJS and native), STOMP CONNECT carries the token
+	    if (request.getServletPath().startsWith("/chat") || request.getServletPath().equals("/ws")) {
 	        filterChain.doFilter(request, response);
 	        return;
 	    }
@@ -53,11 +53,10 @@ public class JwtAuthFilter extends OncePerRequestFilter  {
             return;
         }
 		final String token = authHeader.substring(7);
-		final String username = jwtService.extractUsername(token);
-		if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-		
-		if (jwtService.isTokenValid(token, username)) {
+		// Single parse: signature and expiry are checked here, failures throw
+		final JwtClaims claims = jwtService.verify(token);
+		if (claims.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = userDetailsService.loadTokenUser(claims);
             UsernamePasswordAuthenticationToken authToken =
                     new UsernamePasswordAuthenticationToken(
                             userDetails,
@@ -66,7 +65,6 @@ public class JwtAuthFilter extends OncePerRequestFilter  {
 
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
-		}
 	}
 
     filterChain.doFilter(request, response);
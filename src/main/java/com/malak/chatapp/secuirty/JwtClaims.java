@@ -0,0 +1,22 @@
+package com.malak.chatapp.secuirty;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature and expiry have already been verified.
+ */
+public record JwtClaims(
+    String subject,
+    Long userId,      // null for tokens issued before the uid claim existed
+    String role,
+    String type,      // "access" or "refresh"
+    Instant expiresAt
+) {
+	public boolean isAccessToken() {
+		return "access".equals(type);
+	}
+	
+	public boolean isRefreshToken() {
+		return "refresh".equals(type);
+	}
+}
@@ -1,18 +1,28 @@
 package com.malak.chatapp.secuirty;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
 
 import javax.crypto.SecretKey;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.malak.chatapp.domain.Role;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 
 @Service
@@ -27,17 +37,50 @@ public class JwtService {
 	@Value("${jwt.refresh-token-expiration}")
 	private long refreshTokenExpiration;
 
-	private SecretKey getSigningKey() {
-		return Keys.hmacShaKeyFor(secretKey.getBytes());
+	// 0 disables the verified-token cache
+	@Value("${jwt.verified-cache.max-size:10000}")
+	private long verifiedCacheMaxSize;
+
+	// Built once: the key and parser are immutable and thread safe
+	private SecretKey signingKey;
+	private JwtParser jwtParser;
+
+	// SHA-256(token) -> claims, each entry lives until its token expires
+	private Cache<String, JwtClaims> verifiedTokens;
+
+	@PostConstruct
+	public void init() {
+		signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+		jwtParser = Jwts.parser().verifyWith(signingKey).build();
+		verifiedTokens = Caffeine.newBuilder()
+				.maximumSize(verifiedCacheMaxSize)
+				.expireAfter(new Expiry<String, JwtClaims>() {
+					@Override
+					public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+						return Math.max(0, Duration.between(Instant.now(), claims.expiresAt()).toNanos());
+					}
+
+					@Override
+					public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+
+					@Override
+					public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+						return currentDuration;
+					}
+				})
+				.build();
 	}
 
-	public String generateAccessToken(String username, Role role) {
+	public String generateAccessToken(Long userId, String username, Role role) {
 		return Jwts.builder()
 				.subject(username)
+				.claim("uid", userId) // lets the filters build the principal without a DB lookup
 				.claim("role", role)
 				.claim("type", "access")
 				.issuedAt(new Date())
-				.expiration(new Date(System.currentTimeMillis() + accessTokenExpiration)).signWith(getSigningKey()).compact();
+				.expiration(new Date(System.currentTimeMillis() + accessTokenExpiration)).signWith(signingKey).compact();
 	}
 	
 	public String generateRefreshToken(String username, Role role) {
@@ -46,47 +89,69 @@ public class JwtService {
 				.claim("role", role)
 				.claim("type", "refresh")
 				.issuedAt(new Date())
-				.expiration(new Date(System.currentTimeMillis() + refreshTokenExpiration)).signWith(getSigningKey()).compact();
+				.expiration(new Date(System.currentTimeMillis() + refreshTokenExpiration)).signWith(signingKey).compact();
 	}
 
-	private Claims extractAllClaims(String token) {
-		return Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token).getPayload();
-	}
-
-	private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-		return claimsResolver.apply(extractAllClaims(token));
+	/**
+	 * Verify signature and expiry once and return the parsed claims.
+	 * Repeated bearer tokens are answered from the cache until they expire.
+	 * Throws the usual JwtException subtypes (ExpiredJwtException, MalformedJwtException...).
+	 */
+	public JwtClaims verify(String token) {
+		String key = hash(token);
+		JwtClaims cached = verifiedTokens.getIfPresent(key);
+		if (cached != null) {
+			return cached;
+		}
+		
+		Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+		JwtClaims verified = new JwtClaims(
+				claims.getSubject(),
+				claims.get("uid", Long.class),
+				claims.get("role", String.class),
+				claims.get("type", String.class),
+				claims.getExpiration().toInstant());
+		verifiedTokens.put(key, verified);
+		return verified;
 	}
 
 	public String extractUsername(String token) {
-		return extractClaim(token, Claims::getSubject);
+		return verify(token).subject();
 	}
 
 	public String extractRole(String token) {
-		return extractAllClaims(token).get("role", String.class);
+		return verify(token).role();
+	}
+
+	// null for tokens issued before the uid claim was added
+	public Long extractUserId(String token) {
+		return verify(token).userId();
 	}
 
 	public String extractTokenType(String token) {
-		return extractAllClaims(token).get("type", String.class);
+		return verify(token).type();
 	}
 	
 	public boolean isTokenValid(String token, String username) {
-		return username.equals(extractUsername(token)) && !isTokenExpired(token);
-	}
-
-	private boolean isTokenExpired(String token) {
-		return extractExpiration(token).before(new Date());
-	}
-
-	private Date extractExpiration(String token) {
-		return extractClaim(token, Claims::getExpiration);
+		// verify() already rejects expired tokens
+		return username.equals(verify(token).subject());
 	}
 	
 	public Boolean isAccessToken(String token) {
-		return "access".equals(extractTokenType(token));
+		return verify(token).isAccessToken();
 	}
 	
 	public Boolean isRefreshToken(String token) {
-		return "refresh".equals(extractTokenType(token));
+		return verify(token).isRefreshToken();
+	}
+
+	private static String hash(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
 	}
 
 }
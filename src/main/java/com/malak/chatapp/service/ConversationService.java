@@ -0,0 +1,85 @@
+package com.malak.chatapp.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.repository.ConversationRepository;
+import com.malak.chatapp.repository.MessageRepository;
+import com.malak.chatapp.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationService {
+    
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final UserRepository userRepository;
+    
+    /**
+     * Find the conversation id for a pair of users (either order)
+     */
+    public Optional<Long> findConversationId(Long userA, Long userB) {
+        return conversationRepository.findIdByOrderedUsers(Math.min(userA, userB), Math.max(userA, userB));
+    }
+    
+    /**
+     * Get or lazily create the conversation between two users.
+     * Not transactional on purpose: a concurrent insert of the same pair hits the
+     * unique constraint in its own transaction and we simply re-read the winner.
+     */
+    public Conversation getOrCreateConversation(User userA, User userB) {
+        Long low = Math.min(userA.getId(), userB.getId());
+        Long high = Math.max(userA.getId(), userB.getId());
+        
+        Optional<Conversation> existing = conversationRepository.findByOrderedUsers(low, high);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        
+        try {
+            return conversationRepository.saveAndFlush(Conversation.create(userA, userB));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Conversation between users {} and {} created concurrently", low, high);
+            return conversationRepository.findByOrderedUsers(low, high)
+                .orElseThrow(() -> new IllegalStateException("Conversation could not be created", e));
+        }
+    }
+    
+    /**
+     * Backfill conversation_id for messages stored before conversations existed.
+     * Returns the number of messages updated.
+     */
+    public int backfillMissingConversations() {
+        // Canonical (low, high) pairs, deduplicated across both directions
+        Set<List<Long>> pairs = new LinkedHashSet<>();
+        for (Object[] row : messageRepository.findUserPairsWithoutConversation()) {
+            Long senderId = (Long) row[0];
+            Long receiverId = (Long) row[1];
+            pairs.add(List.of(Math.min(senderId, receiverId), Math.max(senderId, receiverId)));
+        }
+        
+        int updated = 0;
+        for (List<Long> pair : pairs) {
+            Conversation conversation = getOrCreateConversation(
+                userRepository.getReferenceById(pair.get(0)),
+                userRepository.getReferenceById(pair.get(1)));
+            updated += messageRepository.assignConversation(conversation, pair.get(0), pair.get(1));
+        }
+        
+        if (updated > 0) {
+            log.info("Backfilled {} messages into {} conversations", updated, pairs.size());
+        }
+        return updated;
+    }
+}
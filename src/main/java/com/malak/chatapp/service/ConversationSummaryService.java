@@ -0,0 +1,216 @@
+package com.malak.chatapp.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.domain.ConversationSummary;
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.ConversationSummaryDto;
+import com.malak.chatapp.dto.InboxPageDto;
+import com.malak.chatapp.dto.MessageDTO;
+import com.malak.chatapp.repository.ConversationRepository;
+import com.malak.chatapp.repository.ConversationSummaryRepository;
+import com.malak.chatapp.repository.MessageRepository;
+import com.malak.chatapp.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the per-participant conversation summaries behind the inbox.
+ * Every persisted message is folded in incrementally (one UPDATE per conversation
+ * per batch, counting only messages above the owner's read mark) and read receipts
+ * reset the unread counter, so listing conversations
+ * and counting unread messages never scan the messages table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationSummaryService {
+    
+    private final ConversationSummaryRepository summaryRepository;
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final UserRepository userRepository;
+    
+    /**
+     * Fold persisted messages into the summaries. Messages of the same conversation
+     * are aggregated first, so a write-behind batch costs one statement per conversation.
+     * Failures are logged, not thrown: the messages are already stored.
+     */
+    public void recordMessages(List<Message> messages) {
+        Map<Long, Delta> deltas = new LinkedHashMap<>();
+        for (Message message : messages) {
+            if (message.getConversation() == null) {
+                continue;
+            }
+            deltas.computeIfAbsent(message.getConversation().getId(), id -> new Delta()).add(message);
+        }
+        
+        for (Map.Entry<Long, Delta> entry : deltas.entrySet()) {
+            try {
+                apply(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                log.warn("Could not update summaries of conversation {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+    
+    private void apply(Long conversationId, Delta delta) {
+        if (delta.apply(summaryRepository, conversationId) == 2) {
+            return;
+        }
+        // First message of the conversation: create the two rows, then apply again
+        createSummary(conversationId, delta.user1Id, delta.user2Id);
+        createSummary(conversationId, delta.user2Id, delta.user1Id);
+        delta.apply(summaryRepository, conversationId);
+    }
+    
+    private void createSummary(Long conversationId, Long ownerId, Long peerId) {
+        if (summaryRepository.existsByConversationIdAndOwnerId(conversationId, ownerId)) {
+            return;
+        }
+        try {
+            summaryRepository.saveAndFlush(ConversationSummary.create(
+                conversationRepository.getReferenceById(conversationId),
+                userRepository.getReferenceById(ownerId),
+                userRepository.getReferenceById(peerId)));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Summary of conversation {} for user {} created concurrently", conversationId, ownerId);
+        }
+    }
+    
+    /**
+     * Owner read everything up to readId: zero the counter when that covers the
+     * newest message, otherwise recount the (short) tail above the read mark.
+     */
+    public void markRead(Long conversationId, Long ownerId, Long readId) {
+        if (summaryRepository.clearUnread(conversationId, ownerId, readId) == 0) {
+            summaryRepository.recountUnread(conversationId, ownerId, readId);
+        }
+    }
+    
+    /**
+     * Keyset page of a user's conversations, most recently active first.
+     * A null cursor starts from the newest conversation.
+     */
+    @Transactional(readOnly = true)
+    public InboxPageDto getInbox(Long ownerId, Long cursor, int size) {
+        // Fetch one extra row to know whether another page exists
+        List<ConversationSummaryDto> rows = summaryRepository.findInboxBefore(
+                ownerId, cursor == null ? Long.MAX_VALUE : cursor, PageRequest.of(0, size + 1));
+        
+        boolean hasMore = rows.size() > size;
+        List<ConversationSummaryDto> conversations = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        Long nextCursor = conversations.isEmpty() ? null : conversations.get(conversations.size() - 1).lastMessageId();
+        
+        return InboxPageDto.builder()
+                .conversations(conversations)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    @Transactional(readOnly = true)
+    public long getUnreadCount(Long ownerId) {
+        return summaryRepository.sumUnreadByOwnerId(ownerId);
+    }
+    
+    /**
+     * Build summaries for conversations that predate them. Costs a few indexed
+     * queries per conversation, so it only runs once per conversation.
+     * Returns the number of conversations backfilled.
+     */
+    public int backfillMissingSummaries() {
+        List<Long> conversationIds = summaryRepository.findConversationIdsWithoutSummary();
+        int backfilled = 0;
+        for (Long conversationId : conversationIds) {
+            try {
+                backfill(conversationId);
+                backfilled++;
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Summaries of conversation {} created concurrently", conversationId);
+            }
+        }
+        
+        if (backfilled > 0) {
+            log.info("Backfilled summaries for {} conversations", backfilled);
+        }
+        return backfilled;
+    }
+    
+    private void backfill(Long conversationId) {
+        Conversation conversation = conversationRepository.findById(conversationId).orElse(null);
+        if (conversation == null) {
+            return;
+        }
+        List<MessageDTO> latest = messageRepository.findConversationBefore(
+                conversationId, Long.MAX_VALUE, PageRequest.of(0, 1));
+        
+        User user1 = conversation.getUser1();
+        User user2 = conversation.getUser2();
+        summaryRepository.saveAndFlush(backfilledSummary(conversation, user1, user2,
+                conversation.getUser1LastReadId(), latest));
+        summaryRepository.saveAndFlush(backfilledSummary(conversation, user2, user1,
+                conversation.getUser2LastReadId(), latest));
+    }
+    
+    private ConversationSummary backfilledSummary(Conversation conversation, User owner, User peer,
+            Long lastReadId, List<MessageDTO> latest) {
+        ConversationSummary summary = ConversationSummary.create(conversation, owner, peer);
+        if (!latest.isEmpty()) {
+            MessageDTO last = latest.get(0);
+            summary.setLastMessageId(last.id());
+            summary.setLastMessagePreview(preview(last.content()));
+            summary.setLastMessageAt(last.timestamp());
+            summary.setUnreadCount((int) messageRepository.countByConversationIdAndReceiverIdAndIdGreaterThan(
+                    conversation.getId(), owner.getId(), lastReadId == null ? 0L : lastReadId));
+        }
+        return summary;
+    }
+    
+    static String preview(String content) {
+        if (content == null || content.length() <= ConversationSummary.PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, ConversationSummary.PREVIEW_LENGTH);
+    }
+    
+    /**
+     * What a batch of messages changes in one conversation: the newest message
+     * and which messages were added (unread counts are taken against the read marks in SQL).
+     */
+    private static final class Delta {
+        private Long user1Id;
+        private Long user2Id;
+        private Message latest;
+        private final List<Long> messageIds = new ArrayList<>();
+        
+        void add(Message message) {
+            Long senderId = message.getSender().getId();
+            Long receiverId = message.getReceiver().getId();
+            if (user1Id == null) {
+                user1Id = Math.min(senderId, receiverId);
+                user2Id = Math.max(senderId, receiverId);
+            }
+            messageIds.add(message.getId());
+            if (latest == null || latest.getId() < message.getId()) {
+                latest = message;
+            }
+        }
+        
+        int apply(ConversationSummaryRepository repository, Long conversationId) {
+            return repository.applyMessages(conversationId, latest.getId(), preview(latest.getContent()),
+                    latest.getCreatedAt(), messageIds);
+        }
+    }
+}
@@ -3,12 +3,16 @@ package com.malak.chatapp.service;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.malak.chatapp.domain.FriendRequest;
 import com.malak.chatapp.domain.FriendshipStatus;
 import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.dto.UserSearchPageDto;
 import com.malak.chatapp.exception.ResourceNotFoundException;
 import com.malak.chatapp.repository.FriendRequestRepository;
 import com.malak.chatapp.repository.FriendshipRepository;
@@ -39,6 +43,11 @@ public class FriendshipService {
         return friendshipRepository.getFriendIdsForUserId(userId);
     }
     
+    @Transactional(readOnly = true)
+    public List<UserIdentity> getFriendIdentities(Long userId) {
+        return friendshipRepository.getFriendIdentitiesForUserId(userId);
+    }
+    
     @Transactional(readOnly = true)
     public boolean areFriends(Long userId1, Long userId2) {
         return friendshipRepository.areFriends(userId1, userId2);
@@ -65,11 +74,12 @@ public class FriendshipService {
     }
     
     @Transactional(readOnly = true)
-    public List<User> searchFriends(Long userId, String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return getFriends(userId);
-        }
-        return friendshipRepository.searchFriends(userId, searchTerm.trim());
+    public UserSearchPageDto searchFriends(Long userId, String searchTerm, String cursor, Long cursorId, int size) {
+        // A blank term becomes the pattern "%", i.e. all friends, still paginated
+        List<UserDto> rows = friendshipRepository.searchFriendsByUsernamePrefix(
+                userId, UserService.prefixPattern(searchTerm), cursor == null ? "" : cursor,
+                cursorId == null ? 0L : cursorId, PageRequest.of(0, size + 1));
+        return UserService.toSearchPage(rows, size);
     }
     
     @Transactional(readOnly = true)
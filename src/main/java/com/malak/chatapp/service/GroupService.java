@@ -0,0 +1,212 @@
+package com.malak.chatapp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.malak.chatapp.domain.ChatGroup;
+import com.malak.chatapp.domain.GroupMember;
+import com.malak.chatapp.domain.GroupMessage;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.GroupDto;
+import com.malak.chatapp.dto.GroupMemberDto;
+import com.malak.chatapp.dto.GroupMessageDTO;
+import com.malak.chatapp.dto.GroupMessagePageDto;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.exception.ResourceAlreadyExistsException;
+import com.malak.chatapp.exception.ResourceNotFoundException;
+import com.malak.chatapp.exception.UnauthorizedActionException;
+import com.malak.chatapp.repository.ChatGroupRepository;
+import com.malak.chatapp.repository.GroupMemberRepository;
+import com.malak.chatapp.repository.GroupMessageRepository;
+import com.malak.chatapp.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Group conversations. A post is stored once and published once to
+ * /topic/groups.{id}; the broker fans it out to the subscribed members, so the
+ * cost of a post does not grow with the member count. Members that are offline
+ * read the history page. Subscriptions are checked in GroupSubscriptionInterceptor.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GroupService {
+    
+    private final ChatGroupRepository groupRepository;
+    private final GroupMemberRepository memberRepository;
+    private final GroupMessageRepository groupMessageRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final GroupSubscriptionRegistry subscriptionRegistry;
+    
+    @Value("${chat.groups.max-members:256}")
+    private int maxMembers;
+    
+    // Dot-separated: RabbitMQ's STOMP adapter refuses a second '/' in a /topic/ destination
+    public static final String TOPIC_PREFIX = "/topic/groups.";
+    
+    public static String topic(Long groupId) {
+        return TOPIC_PREFIX + groupId;
+    }
+    
+    /**
+     * Create a group owned by the creator, with the given initial members.
+     */
+    @Transactional
+    public GroupDto createGroup(Long ownerId, String name, List<Long> memberIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        ids.add(ownerId);
+        if (memberIds != null) {
+            ids.addAll(memberIds);
+        }
+        if (ids.size() > maxMembers) {
+            throw new IllegalArgumentException("A group can have at most " + maxMembers + " members");
+        }
+        
+        List<User> users = userRepository.findAllById(ids);
+        if (users.size() != ids.size()) {
+            throw new ResourceNotFoundException("User not found in member list");
+        }
+        
+        ChatGroup group = new ChatGroup();
+        group.setName(name.trim());
+        group.setOwner(userRepository.getReferenceById(ownerId));
+        group = groupRepository.save(group);
+        
+        List<GroupMember> members = new ArrayList<>(users.size());
+        for (User user : users) {
+            members.add(GroupMember.create(group, user));
+        }
+        memberRepository.saveAll(members);
+        
+        log.info("User {} created group {} with {} members", ownerId, group.getId(), members.size());
+        return new GroupDto(group.getId(), group.getName(), ownerId, group.getCreatedAt());
+    }
+    
+    @Transactional(readOnly = true)
+    public List<GroupDto> getGroupsOfUser(Long userId) {
+        return groupRepository.findGroupsOfUser(userId);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<GroupMemberDto> getMembers(Long groupId, Long requesterId) {
+        requireMember(groupId, requesterId);
+        return memberRepository.findMembers(groupId);
+    }
+    
+    /**
+     * Owner adds a user to the group.
+     */
+    @Transactional
+    public void addMember(Long groupId, Long ownerId, Long userId) {
+        requireOwner(groupId, ownerId);
+        if (memberRepository.existsByGroupIdAndUserId(groupId, userId)) {
+            throw new ResourceAlreadyExistsException("User is already a member of this group");
+        }
+        if (memberRepository.countByGroupId(groupId) >= maxMembers) {
+            throw new IllegalStateException("Group is full");
+        }
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        memberRepository.save(GroupMember.create(groupRepository.getReferenceById(groupId), user));
+    }
+    
+    /**
+     * Owner removes a member, or a member leaves. The owner cannot leave their own group.
+     * Their live subscriptions to the group topic are dropped once the delete commits.
+     */
+    @Transactional
+    public void removeMember(Long groupId, Long requesterId, Long userId) {
+        Long ownerId = groupRepository.findOwnerId(groupId)
+            .orElseThrow(() -> new ResourceNotFoundException("Group not found with id: " + groupId));
+        if (!requesterId.equals(userId) && !requesterId.equals(ownerId)) {
+            throw new UnauthorizedActionException("Only the group owner can remove other members");
+        }
+        if (userId.equals(ownerId)) {
+            throw new IllegalStateException("The group owner cannot leave the group");
+        }
+        if (memberRepository.deleteMember(groupId, userId) == 0) {
+            throw new ResourceNotFoundException("User is not a member of this group");
+        }
+        // After commit: a SUBSCRIBE checked before that still saw the row, and is revoked here
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    subscriptionRegistry.revoke(groupId, userId);
+                }
+            });
+        } else {
+            subscriptionRegistry.revoke(groupId, userId);
+        }
+    }
+    
+    public boolean isMember(Long groupId, Long userId) {
+        return memberRepository.existsByGroupIdAndUserId(groupId, userId);
+    }
+    
+    /**
+     * Store a post once. The caller publishes the returned DTO to topic(groupId).
+     */
+    public GroupMessageDTO sendGroupMessage(Long groupId, UserIdentity sender, String content) {
+        requireMember(groupId, sender.id());
+        
+        GroupMessage message = new GroupMessage();
+        message.setGroup(groupRepository.getReferenceById(groupId));
+        message.setSender(userService.getReference(sender));
+        message.setContent(content);
+        GroupMessage saved = groupMessageRepository.save(message);
+        
+        return new GroupMessageDTO(saved.getId(), groupId, sender.username(), saved.getContent(), saved.getCreatedAt());
+    }
+    
+    /**
+     * Keyset page of a group's history, older than the cursor (newest first when null).
+     * Messages are returned oldest -> newest.
+     */
+    @Transactional(readOnly = true)
+    public GroupMessagePageDto getGroupMessages(Long groupId, Long requesterId, Long cursor, int size) {
+        requireMember(groupId, requesterId);
+        
+        // Fetch one extra row to know whether another page exists
+        List<GroupMessageDTO> rows = groupMessageRepository.findGroupBefore(
+                groupId, cursor == null ? Long.MAX_VALUE : cursor, PageRequest.of(0, size + 1));
+        
+        boolean hasMore = rows.size() > size;
+        List<GroupMessageDTO> messages = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        Long nextCursor = messages.isEmpty() ? null : messages.get(messages.size() - 1).id();
+        Collections.reverse(messages);
+        
+        return GroupMessagePageDto.builder()
+                .messages(messages)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    private void requireMember(Long groupId, Long userId) {
+        if (!isMember(groupId, userId)) {
+            throw new UnauthorizedActionException("You are not a member of this group");
+        }
+    }
+    
+    private void requireOwner(Long groupId, Long userId) {
+        Long ownerId = groupRepository.findOwnerId(groupId)
+            .orElseThrow(() -> new ResourceNotFoundException("Group not found with id: " + groupId));
+        if (!ownerId.equals(userId)) {
+            throw new UnauthorizedActionException("Only the group owner can manage members");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.malak.chatapp.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import com.malak.chatapp.repository.GroupMemberRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Live /topic/groups.{id} subscriptions on this node, by session and by user.
+ * Membership is only checked on SUBSCRIBE, so a removed member would keep receiving posts
+ * until they reconnect. revoke() unsubscribes them through the broker right away, and
+ * allowDelivery() re-checks membership at most once per recheck interval per subscription,
+ * which also catches removals made on another node.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GroupSubscriptionRegistry {
+
+    private final GroupMemberRepository memberRepository;
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${chat.groups.membership-recheck-ms:5000}")
+    private long recheckMs;
+
+    // sessionId -> subscriptionId -> subscription
+    private final ConcurrentHashMap<String, Map<String, GroupSubscription>> bySession = new ConcurrentHashMap<>();
+    // userId -> sessionIds holding at least one group subscription
+    private final ConcurrentHashMap<Long, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    // Lazy: the broker configuration depends on the inbound interceptors, which depend on this
+    @Autowired
+    public void setMessagingTemplate(@Lazy SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    private static final class GroupSubscription {
+        final long groupId;
+        final long userId;
+        final AtomicLong verifiedAt; // System.nanoTime() of the last membership check
+
+        GroupSubscription(long groupId, long userId, long verifiedAt) {
+            this.groupId = groupId;
+            this.userId = userId;
+            this.verifiedAt = new AtomicLong(verifiedAt);
+        }
+    }
+
+    /**
+     * Called before membership is checked, so a removal committing in between still finds it.
+     */
+    public void subscribed(String sessionId, String subscriptionId, Long groupId, Long userId) {
+        sessionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        bySession.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, new GroupSubscription(groupId, userId, System.nanoTime()));
+    }
+
+    public void unsubscribed(String sessionId, String subscriptionId) {
+        Map<String, GroupSubscription> subscriptions = bySession.get(sessionId);
+        if (subscriptions != null) {
+            subscriptions.remove(subscriptionId);
+        }
+    }
+
+    public void sessionClosed(String sessionId) {
+        Map<String, GroupSubscription> subscriptions = bySession.remove(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        for (GroupSubscription subscription : subscriptions.values()) {
+            sessionsByUser.computeIfPresent(subscription.userId, (id, sessions) -> {
+                sessions.remove(sessionId);
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+    }
+
+    /**
+     * Drop every subscription userId holds on groupId on this node. Call once the membership
+     * row is gone for good (after commit).
+     */
+    public void revoke(Long groupId, Long userId) {
+        Set<String> sessions = sessionsByUser.get(userId);
+        if (sessions == null) {
+            return;
+        }
+        for (String sessionId : sessions) {
+            Map<String, GroupSubscription> subscriptions = bySession.get(sessionId);
+            if (subscriptions == null) {
+                continue;
+            }
+            subscriptions.forEach((subscriptionId, subscription) -> {
+                if (subscription.groupId == groupId && subscriptions.remove(subscriptionId, subscription)) {
+                    unsubscribe(sessionId, subscriptionId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Outbound check for a group post. Unknown subscriptions were revoked (or never passed the
+     * SUBSCRIBE check) and get nothing; known ones are re-checked against the members table
+     * once the last check is older than the recheck interval.
+     */
+    public boolean allowDelivery(String sessionId, String subscriptionId) {
+        Map<String, GroupSubscription> subscriptions = bySession.get(sessionId);
+        GroupSubscription subscription = subscriptions == null ? null : subscriptions.get(subscriptionId);
+        if (subscription == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long verifiedAt = subscription.verifiedAt.get();
+        // One thread re-checks; the others deliver on the previous result meanwhile
+        if (now - verifiedAt < recheckMs * 1_000_000L || !subscription.verifiedAt.compareAndSet(verifiedAt, now)) {
+            return true;
+        }
+        if (memberRepository.existsByGroupIdAndUserId(subscription.groupId, subscription.userId)) {
+            return true;
+        }
+        log.info("User {} is no longer a member of group {}, dropping subscription {} of session {}",
+                subscription.userId, subscription.groupId, subscriptionId, sessionId);
+        if (subscriptions.remove(subscriptionId, subscription)) {
+            unsubscribe(sessionId, subscriptionId);
+        }
+        return false;
+    }
+
+    public int getSubscriptionCount() {
+        return bySession.values().stream().mapToInt(Map::size).sum();
+    }
+
+    // Same frame the client would send, straight to the broker (simple broker or relay)
+    private void unsubscribe(String sessionId, String subscriptionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.UNSUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        messagingTemplate.getMessageChannel()
+                .send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,209 @@
+package com.malak.chatapp.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.dto.MessageDTO;
+import com.malak.chatapp.dto.MessageSearchPageDto;
+import com.malak.chatapp.repository.MessageRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-JVM inverted index for databases without full-text search (H2 in tests and local runs).
+ * Each term maps to the messages containing it with their term frequency. Participants are
+ * indexed as pseudo-terms too, so scoping a search to the caller is one more posting list in
+ * the intersection, and the intersection always walks the shortest list. Hits are ranked by
+ * tf-idf normalised by message length; only the returned page is loaded from the database.
+ * Single node only: every instance builds its own index from the messages table at startup.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.search.mode", havingValue = "memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryMessageSearchIndex implements MessageSearchIndex {
+    
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int MAX_TERM_LENGTH = 64;
+    // Cannot collide with content terms: the tokenizer never emits '@'
+    private static final String PARTICIPANT_PREFIX = "@user:";
+    
+    private final MessageRepository messageRepository;
+    
+    // term -> (messageId -> term frequency)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    // messageId -> number of content terms
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private record Hit(long messageId, double score) {}
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long after = 0L;
+        int indexed = 0;
+        List<Object[]> rows;
+        do {
+            rows = messageRepository.findSearchRowsAfter(after, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Object[] row : rows) {
+                add((Long) row[0], (Long) row[1], (Long) row[2], (String) row[3]);
+            }
+            if (!rows.isEmpty()) {
+                after = (Long) rows.get(rows.size() - 1)[0];
+                indexed += rows.size();
+            }
+        } while (rows.size() == REBUILD_BATCH_SIZE);
+        log.info("In-memory message search index built with {} messages", indexed);
+    }
+    
+    @Override
+    public void index(List<Message> messages) {
+        for (Message message : messages) {
+            add(message.getId(), message.getSender().getId(), message.getReceiver().getId(), message.getContent());
+        }
+    }
+    
+    private void add(Long messageId, Long senderId, Long receiverId, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(content)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        
+        lock.writeLock().lock();
+        try {
+            if (documentLengths.putIfAbsent(messageId, length) != null) {
+                return;
+            }
+            frequencies.forEach((term, tf) -> posting(term).put(messageId, tf));
+            posting(PARTICIPANT_PREFIX + senderId).put(messageId, 0);
+            posting(PARTICIPANT_PREFIX + receiverId).put(messageId, 0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private Map<Long, Integer> posting(String term) {
+        return postings.computeIfAbsent(term, t -> new HashMap<>());
+    }
+    
+    @Override
+    public MessageSearchPageDto search(Long userId, String query, int page, int size) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        List<Hit> hits = terms.isEmpty() ? List.of() : rank(userId, terms);
+        
+        int from = Math.min(page * size, hits.size());
+        int to = Math.min(from + size, hits.size());
+        List<Long> ids = hits.subList(from, to).stream().map(Hit::messageId).toList();
+        
+        // Only the page itself is read from the database, then put back in rank order
+        Map<Long, MessageDTO> byId = ids.isEmpty() ? Map.of()
+                : messageRepository.findDtosByIdIn(ids).stream()
+                        .collect(Collectors.toMap(MessageDTO::id, Function.identity()));
+        List<MessageDTO> messages = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            MessageDTO message = byId.get(id);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        
+        return MessageSearchPageDto.builder()
+                .messages(messages)
+                .page(page)
+                .hasMore(to < hits.size())
+                .build();
+    }
+    
+    private List<Hit> rank(Long userId, Set<String> terms) {
+        lock.readLock().lock();
+        try {
+            Map<String, Map<Long, Integer>> lists = new LinkedHashMap<>();
+            for (String term : terms) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.put(term, list);
+            }
+            Map<Long, Integer> participant = postings.get(PARTICIPANT_PREFIX + userId);
+            if (participant == null) {
+                return List.of();
+            }
+            
+            // Walk the shortest list, probe the others
+            Map<Long, Integer> shortest = participant;
+            for (Map<Long, Integer> list : lists.values()) {
+                if (list.size() < shortest.size()) {
+                    shortest = list;
+                }
+            }
+            
+            double documentCount = documentLengths.size();
+            List<Hit> hits = new ArrayList<>();
+            for (Long messageId : shortest.keySet()) {
+                if (!participant.containsKey(messageId)) {
+                    continue;
+                }
+                double score = 0;
+                boolean all = true;
+                for (Map<Long, Integer> list : lists.values()) {
+                    Integer tf = list.get(messageId);
+                    if (tf == null) {
+                        all = false;
+                        break;
+                    }
+                    score += tf * Math.log(1 + documentCount / list.size());
+                }
+                if (all) {
+                    hits.add(new Hit(messageId, score / Math.sqrt(Math.max(1, documentLengths.get(messageId)))));
+                }
+            }
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(Comparator.comparingLong(Hit::messageId).reversed()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Lower-cased runs of letters and digits, the same split Postgres' "simple" configuration makes
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase());
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
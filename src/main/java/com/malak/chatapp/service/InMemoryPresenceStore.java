@@ -0,0 +1,109 @@
+package com.malak.chatapp.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-instance presence store.
+ * Tracks every live WebSocket session per user with its connect time.
+ * A user is online while at least one session is open; add/remove report
+ * whether the call crossed that boundary so callers only broadcast real
+ * ONLINE/OFFLINE transitions, not every extra device or tab.
+ * Typing state is not kept here: with one instance the local timer wheel already knows it.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.presence.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPresenceStore implements PresenceStore {
+    
+    // userId -> (sessionId -> connectedAt); a user has an entry only while online
+    private final ConcurrentHashMap<Long, Map<String, LocalDateTime>> sessions = new ConcurrentHashMap<>();
+    
+    // userId -> lastSeen timestamp
+    private final ConcurrentHashMap<Long, LocalDateTime> lastSeenMap = new ConcurrentHashMap<>();
+    
+    @Override
+    public boolean addSession(Long userId, String sessionId) {
+        boolean[] first = new boolean[1];
+        sessions.compute(userId, (id, userSessions) -> {
+            if (userSessions == null) {
+                userSessions = new ConcurrentHashMap<>();
+            }
+            first[0] = userSessions.isEmpty();
+            userSessions.put(sessionId, LocalDateTime.now());
+            return userSessions;
+        });
+        return first[0];
+    }
+    
+    @Override
+    public boolean removeSession(Long userId, String sessionId) {
+        boolean[] last = new boolean[1];
+        sessions.computeIfPresent(userId, (id, userSessions) -> {
+            if (userSessions.remove(sessionId) == null) {
+                return userSessions;
+            }
+            last[0] = userSessions.isEmpty();
+            return last[0] ? null : userSessions;
+        });
+        return last[0];
+    }
+    
+    @Override
+    public boolean isOnline(Long userId) {
+        return sessions.containsKey(userId);
+    }
+    
+    @Override
+    public int getSessionCount(Long userId) {
+        Map<String, LocalDateTime> userSessions = sessions.get(userId);
+        return userSessions == null ? 0 : userSessions.size();
+    }
+    
+    @Override
+    public List<LocalDateTime> getSessionConnectTimes(Long userId) {
+        Map<String, LocalDateTime> userSessions = sessions.get(userId);
+        if (userSessions == null) {
+            return List.of();
+        }
+        return userSessions.values().stream().sorted().toList();
+    }
+    
+    @Override
+    public List<Long> getOnlineUserIds() {
+        return sessions.keySet().stream().toList();
+    }
+    
+    @Override
+    public void setLastSeen(Long userId, LocalDateTime lastSeen) {
+        lastSeenMap.put(userId, lastSeen);
+    }
+    
+    @Override
+    public LocalDateTime getLastSeen(Long userId) {
+        return lastSeenMap.get(userId);
+    }
+    
+    @Override
+    public void markTyping(Long userId, Long recipientId) {
+    }
+    
+    @Override
+    public void clearTyping(Long userId, Long recipientId) {
+    }
+    
+    @Override
+    public boolean isTyping(Long userId, Long recipientId) {
+        return false;
+    }
+    
+    @Override
+    public List<Long> heartbeat() {
+        // Nothing shared, nothing to expire
+        return List.of();
+    }
+}
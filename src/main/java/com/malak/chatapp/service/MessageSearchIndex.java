@@ -0,0 +1,25 @@
+package com.malak.chatapp.service;
+
+import java.util.List;
+
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.dto.MessageSearchPageDto;
+
+/**
+ * Full-text search over private message content, scoped to the caller's conversations.
+ * Selected with chat.search.mode: "postgres" (default) answers from a GIN index on
+ * to_tsvector(content), "memory" keeps an inverted index in this JVM (H2 / tests).
+ */
+public interface MessageSearchIndex {
+    
+    /**
+     * Make newly persisted messages searchable. No-op when the database maintains the index.
+     */
+    void index(List<Message> messages);
+    
+    /**
+     * Messages sent or received by userId that contain every term of the query,
+     * best match first. page is zero based.
+     */
+    MessageSearchPageDto search(Long userId, String query, int page, int size);
+}
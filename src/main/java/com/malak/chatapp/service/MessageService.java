@@ -1,11 +1,30 @@
 package com.malak.chatapp.service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.malak.chatapp.domain.Conversation;
 import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.domain.TimeOrderedIdGenerator;
 import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.CursorDirection;
+import com.malak.chatapp.dto.MessageBatchItemResult;
+import com.malak.chatapp.dto.MessageDTO;
+import com.malak.chatapp.dto.MessagePageDto;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.exception.ResourceNotFoundException;
+import com.malak.chatapp.repository.MessageJdbcRepository;
 import com.malak.chatapp.repository.MessageRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -14,28 +33,159 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class MessageService {
 	private final MessageRepository messageRepository;
+	private final MessageJdbcRepository messageJdbcRepository;
+	private final ConversationService conversationService;
+	private final MessageWriteBehindQueue writeBehindQueue;
+	private final UserService userService;
+	private final ConversationSummaryService conversationSummaryService;
+	private final MessageSearchIndex messageSearchIndex;
 
+	@Value("${chat.messages.batch.max-size:100}")
+	private int maxBatchSize;
+
+
+    /**
+     * Persist a message. In write-behind mode the id and timestamp are assigned here,
+     * the message is queued for a batched insert and returned right away so delivery
+     * does not wait for the database (the inbox summaries then follow the flush).
+     */
+    public Message sendMessage(UserIdentity senderIdentity, UserIdentity receiverIdentity, String content) {
+        // References only carry the id, the users are never loaded
+        User sender = userService.getReference(senderIdentity);
+        User receiver = userService.getReference(receiverIdentity);
 
-    public Message sendMessage(User sender, User receiver, String content) {
         Message msg = new Message();
+        msg.setConversation(conversationService.getOrCreateConversation(sender, receiver));
         msg.setSender(sender);
         msg.setReceiver(receiver);
         msg.setContent(content);
-        return messageRepository.save(msg);
+
+        if (writeBehindQueue.isEnabled()) {
+            msg.setId(TimeOrderedIdGenerator.nextId());
+            msg.setCreatedAt(LocalDateTime.now());
+            writeBehindQueue.enqueue(msg);
+            return msg;
+        }
+        Message saved = messageRepository.save(msg);
+        conversationSummaryService.recordMessages(List.of(saved));
+        messageSearchIndex.index(List.of(saved));
+        return saved;
     }
 
 
-    public List<Message> getConversation(User user1, User user2) {
-        return messageRepository.findConversation(user1.getId(), user2.getId());
+    /**
+     * Persist a batch of messages from one sender. Each recipient is resolved and its
+     * conversation fetched once per batch, ids are assigned up front and all accepted
+     * messages are written in a single JDBC batch (or queued, in write-behind mode).
+     * Items with a blank field or an unknown recipient are rejected individually;
+     * the returned results line up with the submitted items.
+     */
+    public List<MessageBatchItemResult> sendMessages(UserIdentity senderIdentity, List<MessageDTO> items) {
+        if (items.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch can hold at most " + maxBatchSize + " messages");
+        }
+        User sender = userService.getReference(senderIdentity);
+        Map<String, Optional<User>> recipients = new HashMap<>();
+        Map<Long, Conversation> conversations = new HashMap<>();
+
+        List<MessageBatchItemResult> results = new ArrayList<>(items.size());
+        List<Message> accepted = new ArrayList<>(items.size());
+        for (int index = 0; index < items.size(); index++) {
+            MessageDTO item = items.get(index);
+            if (item == null || item.recipient() == null || item.recipient().isBlank()) {
+                results.add(MessageBatchItemResult.rejected(index, "Recipient username must be not null or blank"));
+                continue;
+            }
+            if (item.content() == null || item.content().isBlank()) {
+                results.add(MessageBatchItemResult.rejected(index, "Message must be not null or blank"));
+                continue;
+            }
+            Optional<User> receiver = recipients.computeIfAbsent(item.recipient(), this::findRecipient);
+            if (receiver.isEmpty()) {
+                results.add(MessageBatchItemResult.rejected(index, "no user with this username"));
+                continue;
+            }
+
+            Message msg = new Message();
+            msg.setId(TimeOrderedIdGenerator.nextId());
+            msg.setCreatedAt(LocalDateTime.now());
+            msg.setConversation(conversations.computeIfAbsent(receiver.get().getId(),
+                    id -> conversationService.getOrCreateConversation(sender, receiver.get())));
+            msg.setSender(sender);
+            msg.setReceiver(receiver.get());
+            msg.setContent(item.content());
+            accepted.add(msg);
+            results.add(MessageBatchItemResult.sent(index, msg.getId(), msg.getCreatedAt()));
+        }
+
+        if (accepted.isEmpty()) {
+            return results;
+        }
+        if (writeBehindQueue.isEnabled()) {
+            accepted.forEach(writeBehindQueue::enqueue);
+        } else {
+            messageJdbcRepository.batchInsert(accepted);
+            conversationSummaryService.recordMessages(accepted);
+            messageSearchIndex.index(accepted);
+        }
+        return results;
+    }
+
+    private Optional<User> findRecipient(String username) {
+        try {
+            return Optional.of(userService.getReference(userService.getIdentityByUsername(username)));
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+
+    /**
+     * Keyset page of a conversation. A null cursor starts from the newest message
+     * (BEFORE) or the oldest one (AFTER). Messages are returned oldest -> newest.
+     */
+    @Transactional(readOnly = true)
+    public MessagePageDto getConversationPage(User user1, User user2, Long cursor, CursorDirection direction, int size) {
+        Optional<Long> conversationId = conversationService.findConversationId(user1.getId(), user2.getId());
+        if (conversationId.isEmpty()) {
+            return MessagePageDto.builder().messages(List.of()).hasMore(false).build();
+        }
+
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<MessageDTO> rows;
+        if (direction == CursorDirection.AFTER) {
+            rows = messageRepository.findConversationAfter(
+                    conversationId.get(), cursor == null ? 0L : cursor, limit);
+        } else {
+            rows = messageRepository.findConversationBefore(
+                    conversationId.get(), cursor == null ? Long.MAX_VALUE : cursor, limit);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<MessageDTO> messages = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+        Long nextCursor = messages.isEmpty() ? null : messages.get(messages.size() - 1).id();
+
+        if (direction != CursorDirection.AFTER) {
+            Collections.reverse(messages);
+        }
+
+        return MessagePageDto.builder()
+                .messages(messages)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
 
-    public List<Message> getMessagesSentBy(User sender) {
+    @Transactional(readOnly = true)
+    public List<MessageDTO> getMessagesSentBy(User sender) {
         return messageRepository.findBySenderId(sender.getId());
     }
 
 
-    public List<Message> getMessagesReceivedBy(User receiver) {
+    @Transactional(readOnly = true)
+    public List<MessageDTO> getMessagesReceivedBy(User receiver) {
         return messageRepository.findByReceiverId(receiver.getId());
     }
 }
@@ -0,0 +1,500 @@
+package com.malak.chatapp.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.repository.MessageJdbcRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind persistence for chat messages.
+ * Messages (with pre-assigned ids) are queued by the caller and written by a single
+ * background thread in JDBC batches. When the queue stays full longer than the offer
+ * timeout the caller writes the message itself, which slows producers down instead of
+ * growing memory. Everything still queued is flushed on shutdown. Inbox summaries
+ * and the search index are updated once per flushed batch.
+ * A failing batch is retried with backoff, then split in halves until only the rows
+ * that still fail are left. Those are kept as dead letters and retried on their own
+ * schedule instead of being dropped: the messages were already delivered. Whatever is
+ * still unwritten at shutdown is saved to the dead-letter file and written at the next
+ * startup; the log only ever gets ids, never message content.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MessageWriteBehindQueue {
+    
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+    private static final long MAX_DEAD_LETTER_BACKOFF_MS = 30_000;
+    private static final ObjectMapper SPILL_MAPPER = new ObjectMapper();
+    
+    private final MessageJdbcRepository messageJdbcRepository;
+    private final ConversationSummaryService conversationSummaryService;
+    private final MessageSearchIndex messageSearchIndex;
+    
+    @Value("${chat.messages.write-behind.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${chat.messages.write-behind.capacity:10000}")
+    private int capacity;
+    
+    @Value("${chat.messages.write-behind.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${chat.messages.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+    
+    @Value("${chat.messages.write-behind.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+    
+    @Value("${chat.messages.write-behind.retry-backoff-ms:100}")
+    private long retryBackoffMs;
+    
+    // Holds message content: keep it on a private volume. Blank disables the file
+    @Value("${chat.messages.write-behind.dead-letter-file:unwritten-messages.jsonl}")
+    private String deadLetterFile;
+    
+    private BlockingQueue<Message> queue;
+    private Thread flusher;
+    private volatile boolean running;
+    // Enqueuers hold the read side while offering; shutdown takes the write side to stop
+    // accepting, so nothing can land in the queue after its final drain
+    private final ReentrantReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    
+    // Rows that failed on their own; only the flusher (or shutdown, after it stopped) touches them
+    private final ConcurrentLinkedQueue<Message> deadLetters = new ConcurrentLinkedQueue<>();
+    private long deadLetterBackoffMs;
+    private long nextDeadLetterRetry;
+    // Set when the dead-letter file could not be read at startup: it is left alone for an operator
+    private volatile boolean keepDeadLetterFile;
+    
+    // Ids accepted but not yet written (queued, in flight or dead-lettered), indexed the two
+    // ways they are looked up. Removed only after the insert committed: check here first,
+    // then the database.
+    private final ConcurrentHashMap<Long, ConcurrentSkipListSet<Long>> pendingByReceiver = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<PendingKey, ConcurrentSkipListSet<Long>> pendingBySender = new ConcurrentHashMap<>();
+    
+    private record PendingKey(long conversationId, long senderId) {
+    }
+    
+    // One line of the dead-letter file
+    private record SpilledMessage(long id, Long conversationId, long senderId, long receiverId,
+            String content, String createdAt) {
+        
+        static SpilledMessage of(Message message) {
+            return new SpilledMessage(message.getId(),
+                    message.getConversation() == null ? null : message.getConversation().getId(),
+                    message.getSender().getId(), message.getReceiver().getId(),
+                    message.getContent(), message.getCreatedAt().toString());
+        }
+        
+        Message toMessage() {
+            Message message = new Message();
+            message.setId(id);
+            if (conversationId != null) {
+                Conversation conversation = new Conversation();
+                conversation.setId(conversationId);
+                message.setConversation(conversation);
+            }
+            message.setSender(User.builder().id(senderId).build());
+            message.setReceiver(User.builder().id(receiverId).build());
+            message.setContent(content);
+            message.setCreatedAt(LocalDateTime.parse(createdAt));
+            return message;
+        }
+    }
+    
+    @PostConstruct
+    public void start() {
+        restoreDeadLetters();
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        flusher = new Thread(this::flushLoop, "message-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Message write-behind enabled (capacity {}, batch size {})", capacity, batchSize);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Queue a message for persistence. Blocks up to the offer timeout when the
+     * queue is full, then falls back to a synchronous write. Also writes synchronously
+     * once shutdown has started or while the dead letters hold a full queue's worth,
+     * so a database outage reaches the sender instead of piling up in memory.
+     */
+    public void enqueue(Message message) {
+        lifecycle.readLock().lock();
+        try {
+            if (running && deadLetters.size() < capacity) {
+                track(message);
+                if (queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                untrack(message);
+                log.warn("Write-behind queue full, persisting message {} synchronously", message.getId());
+            }
+        } catch (InterruptedException e) {
+            untrack(message);
+            Thread.currentThread().interrupt();
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+        List<Message> single = List.of(message);
+        messageJdbcRepository.batchInsert(single);
+        afterWrite(single);
+    }
+    
+    public int getQueueSize() {
+        return queue == null ? 0 : queue.size();
+    }
+    
+    public int getDeadLetterCount() {
+        return deadLetters.size();
+    }
+    
+    /**
+     * Newest message from sender in the conversation that is accepted but not yet in the database
+     */
+    public Optional<Long> latestPendingId(Long conversationId, Long senderId) {
+        ConcurrentSkipListSet<Long> ids = pendingBySender.get(new PendingKey(conversationId, senderId));
+        return Optional.ofNullable(ids == null ? null : ids.floor(Long.MAX_VALUE));
+    }
+    
+    /**
+     * Oldest message to receiver that is accepted but not yet in the database
+     */
+    public Optional<Long> oldestPendingIdFor(Long receiverId) {
+        ConcurrentSkipListSet<Long> ids = pendingByReceiver.get(receiverId);
+        return Optional.ofNullable(ids == null ? null : ids.ceiling(Long.MIN_VALUE));
+    }
+    
+    private void track(Message message) {
+        add(pendingByReceiver, message.getReceiver().getId(), message.getId());
+        if (message.getConversation() != null) {
+            add(pendingBySender, pendingKey(message), message.getId());
+        }
+    }
+    
+    private void untrack(Message message) {
+        remove(pendingByReceiver, message.getReceiver().getId(), message.getId());
+        if (message.getConversation() != null) {
+            remove(pendingBySender, pendingKey(message), message.getId());
+        }
+    }
+    
+    private static PendingKey pendingKey(Message message) {
+        return new PendingKey(message.getConversation().getId(), message.getSender().getId());
+    }
+    
+    // compute keeps adding to a set and dropping it once empty atomic with each other
+    private static <K> void add(ConcurrentHashMap<K, ConcurrentSkipListSet<Long>> index, K key, Long id) {
+        index.compute(key, (k, ids) -> {
+            ConcurrentSkipListSet<Long> result = ids == null ? new ConcurrentSkipListSet<>() : ids;
+            result.add(id);
+            return result;
+        });
+    }
+    
+    private static <K> void remove(ConcurrentHashMap<K, ConcurrentSkipListSet<Long>> index, K key, Long id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+    
+    /**
+     * Wait until every message to receiver accepted up to (and including) id horizon is written,
+     * or the timeout passes. Returns false on timeout (e.g. rows held as dead letters).
+     */
+    public boolean awaitWritten(Long receiverId, long horizon, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (oldestPendingIdFor(receiverId).filter(id -> id <= horizon).isPresent()) {
+            if (System.currentTimeMillis() >= deadline || !sleep(Math.max(1, flushIntervalMs))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void flushLoop() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                retryDeadLetters(false);
+                Message first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                // Only thread draining the queue: never let one bad batch stop it
+                log.error("Write-behind flush failed, continuing", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void flush(List<Message> batch) {
+        for (int attempt = 1; attempt <= MAX_FLUSH_ATTEMPTS; attempt++) {
+            if (tryInsert(batch)) {
+                afterWrite(batch);
+                return;
+            }
+            if (attempt < MAX_FLUSH_ATTEMPTS && !sleep(retryBackoffMs << (attempt - 1))) {
+                break;
+            }
+        }
+        // Still failing: a bad row or a longer outage. Halve until the failing rows are isolated
+        log.warn("Write-behind batch of {} messages keeps failing, writing it in parts", batch.size());
+        bisect(batch);
+    }
+    
+    private void bisect(List<Message> batch) {
+        if (tryInsert(batch)) {
+            afterWrite(batch);
+            return;
+        }
+        if (batch.size() == 1) {
+            Message message = batch.get(0);
+            log.error("Message {} could not be written, keeping it for retry", message.getId());
+            deadLetters.add(message);
+            return;
+        }
+        int middle = batch.size() / 2;
+        bisect(batch.subList(0, middle));
+        bisect(batch.subList(middle, batch.size()));
+    }
+    
+    // One row per insert, so a row that can never be written does not hold back the others
+    private void retryDeadLetters(boolean force) {
+        if (deadLetters.isEmpty() || (!force && System.currentTimeMillis() < nextDeadLetterRetry)) {
+            return;
+        }
+        int failed = 0;
+        for (int remaining = deadLetters.size(); remaining > 0; remaining--) {
+            Message message = deadLetters.poll();
+            if (message == null) {
+                break;
+            }
+            List<Message> single = List.of(message);
+            if (tryInsert(single)) {
+                afterWrite(single);
+            } else {
+                deadLetters.add(message);
+                failed++;
+            }
+        }
+        deadLetterBackoffMs = failed == 0 ? 0
+                : Math.min(MAX_DEAD_LETTER_BACKOFF_MS, Math.max(retryBackoffMs, deadLetterBackoffMs * 2));
+        nextDeadLetterRetry = System.currentTimeMillis() + deadLetterBackoffMs;
+    }
+    
+    // batchInsert is transactional, so a failed batch left nothing behind and can be retried as a whole
+    private boolean tryInsert(List<Message> batch) {
+        try {
+            messageJdbcRepository.batchInsert(batch);
+            batch.forEach(this::untrack);
+            log.debug("Flushed {} messages", batch.size());
+            return true;
+        } catch (Exception e) {
+            log.warn("Write-behind insert of {} messages failed: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+    
+    // Outside the retries: a failure here must not insert the batch twice. The rows are
+    // stored either way, so a failure is logged and the flusher moves on to the next batch
+    private void afterWrite(List<Message> batch) {
+        try {
+            conversationSummaryService.recordMessages(batch);
+        } catch (Exception e) {
+            log.error("Could not update summaries for {} written messages (ids {}..{}): {}", batch.size(),
+                    batch.get(0).getId(), batch.get(batch.size() - 1).getId(), e.getMessage());
+        }
+        try {
+            messageSearchIndex.index(batch);
+        } catch (Exception e) {
+            log.error("Could not index {} written messages (ids {}..{}): {}", batch.size(),
+                    batch.get(0).getId(), batch.get(batch.size() - 1).getId(), e.getMessage());
+        }
+    }
+    
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    /**
+     * Durability flush: stop the background thread and write whatever is left.
+     */
+    @PreDestroy
+    public void shutdown() {
+        lifecycle.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        List<Message> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        retryDeadLetters(true);
+        saveDeadLetters(deadLetters);
+        log.info("Message write-behind stopped, flushed {} pending messages, {} could not be written",
+                remaining.size(), deadLetters.size());
+    }
+    
+    private Path deadLetterPath() {
+        return deadLetterFile == null || deadLetterFile.isBlank() ? null : Path.of(deadLetterFile);
+    }
+    
+    /**
+     * Replace the dead-letter file with messages (deleting it when there are none), written
+     * to a temporary file first so a crash never leaves half a file behind.
+     */
+    private void saveDeadLetters(Collection<Message> messages) {
+        Path file = deadLetterPath();
+        List<Long> ids = messages.stream().map(Message::getId).toList();
+        if (file == null || keepDeadLetterFile) {
+            if (!ids.isEmpty()) {
+                log.error("{} messages could not be written and were not saved: ids {}", ids.size(), ids);
+            }
+            return;
+        }
+        try {
+            if (messages.isEmpty()) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            Path absolute = file.toAbsolutePath();
+            Files.createDirectories(absolute.getParent());
+            Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+            Files.deleteIfExists(temporary);
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                Files.createFile(temporary, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary)) {
+                for (Message message : messages) {
+                    writer.write(SPILL_MAPPER.writeValueAsString(SpilledMessage.of(message)));
+                    writer.newLine();
+                }
+            }
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.error("{} messages could not be written, saved to {} for the next startup: ids {}", ids.size(), absolute, ids);
+        } catch (IOException e) {
+            log.error("Could not save {} unwritten messages to {}: {}; ids {}", ids.size(), file, e.getMessage(), ids);
+        }
+    }
+    
+    /**
+     * Write the messages a previous run left in the dead-letter file. Rows that still fail are
+     * kept as dead letters (or, with write-behind off, left in the file). The file itself is
+     * only replaced at shutdown, so a crash before then loses nothing; rows already stored
+     * are skipped on the next restore.
+     */
+    private void restoreDeadLetters() {
+        Path file = deadLetterPath();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        List<Message> messages = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file)) {
+                if (!line.isBlank()) {
+                    messages.add(SPILL_MAPPER.readValue(line, SpilledMessage.class).toMessage());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            keepDeadLetterFile = true;
+            log.error("Could not read unwritten messages from {}, leaving it in place: {}", file, e.getMessage());
+            return;
+        }
+        Set<Long> stored;
+        try {
+            stored = new HashSet<>(messageJdbcRepository.findExistingIds(
+                    messages.stream().map(Message::getId).toList()));
+        } catch (RuntimeException e) {
+            log.warn("Could not check which unwritten messages are stored, retrying them later: {}", e.getMessage());
+            stored = null;
+        }
+        List<Message> failed = new ArrayList<>();
+        for (Message message : messages) {
+            if (stored != null && stored.contains(message.getId())) {
+                continue;
+            }
+            List<Message> single = List.of(message);
+            if (stored != null && tryInsert(single)) {
+                afterWrite(single);
+            } else {
+                failed.add(message);
+            }
+        }
+        if (enabled) {
+            failed.forEach(message -> {
+                track(message);
+                deadLetters.add(message);
+            });
+        } else {
+            saveDeadLetters(failed);
+        }
+        log.info("Restored {} unwritten messages from {}, {} still failing", messages.size(), file, failed.size());
+    }
+}
@@ -0,0 +1,188 @@
+package com.malak.chatapp.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import com.malak.chatapp.domain.DeliveryCursor;
+import com.malak.chatapp.domain.TimeOrderedIdGenerator;
+import com.malak.chatapp.dto.MessageDTO;
+import com.malak.chatapp.dto.MessageReplayDto;
+import com.malak.chatapp.repository.DeliveryCursorRepository;
+import com.malak.chatapp.repository.MessageRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays what a user missed while offline instead of making the client re-download history.
+ * Clients acknowledge the highest message id they received (/app/ack), which moves a
+ * per-user delivery cursor. When a session subscribes to its private queue, the messages
+ * above the cursor are pushed to that session only, in frames of batch-size messages and
+ * up to max-messages in total; past that the client pages the rest over REST.
+ * With write-behind the replay reads only what is written, so it first waits (briefly) for
+ * the user's queued messages to be flushed, and the cursor never moves past a message that
+ * is still queued: it is replayed on a later connect instead of being skipped. Clients
+ * already dedupe by message id, so a message may be replayed after it was seen live.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OfflineReplayService {
+    
+    private final DeliveryCursorRepository deliveryCursorRepository;
+    private final MessageRepository messageRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MessageWriteBehindQueue writeBehindQueue;
+    
+    @Value("${chat.replay.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${chat.replay.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${chat.replay.max-messages:1000}")
+    private int maxMessages;
+    
+    @Value("${chat.replay.threads:2}")
+    private int threads;
+    
+    @Value("${chat.replay.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${chat.replay.write-behind-wait-ms:1000}")
+    private long writeBehindWaitMs;
+    
+    // Sessions that already got their replay (one per session, not per subscription)
+    private final Set<String> replayedSessions = ConcurrentHashMap.newKeySet();
+    
+    private ThreadPoolExecutor workers;
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        // CallerRunsPolicy: a connect storm slows down the subscribing threads instead of losing replays
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "offline-replay-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+    
+    /**
+     * Client received everything up to messageId. Stale acks are ignored.
+     */
+    public void acknowledge(Long userId, Long ackedId) {
+        // Stay below anything to this user that is not written yet, or the replay would skip it
+        long messageId = writeBehindQueue.oldestPendingIdFor(userId)
+                .map(unwritten -> Math.min(ackedId, unwritten - 1))
+                .orElse(ackedId);
+        if (deliveryCursorRepository.advance(userId, messageId, LocalDateTime.now()) > 0) {
+            return;
+        }
+        if (deliveryCursorRepository.existsById(userId)) {
+            return;
+        }
+        try {
+            deliveryCursorRepository.saveAndFlush(new DeliveryCursor(userId, messageId, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Created by a concurrent ack from another session
+            deliveryCursorRepository.advance(userId, messageId, LocalDateTime.now());
+        }
+    }
+    
+    /**
+     * Session subscribed to its private queue: schedule its replay (once per session).
+     */
+    public void sessionSubscribed(Long userId, String username, String sessionId) {
+        if (!enabled || !replayedSessions.add(sessionId)) {
+            return;
+        }
+        workers.execute(() -> {
+            try {
+                replay(userId, username, sessionId);
+            } catch (Exception e) {
+                log.warn("Offline replay for user {} failed: {}", userId, e.getMessage());
+            }
+        });
+    }
+    
+    public void sessionClosed(String sessionId) {
+        replayedSessions.remove(sessionId);
+    }
+    
+    /**
+     * Push the messages above the user's cursor. Returns how many were sent.
+     * A user without a cursor has never acknowledged anything, so there is nothing to replay.
+     */
+    int replay(Long userId, String username, String sessionId) {
+        Optional<Long> cursor = deliveryCursorRepository.findLastDeliveredId(userId);
+        if (cursor.isEmpty()) {
+            return 0;
+        }
+        
+        if (writeBehindQueue.isEnabled()
+                && !writeBehindQueue.awaitWritten(userId, TimeOrderedIdGenerator.nextId(), writeBehindWaitMs)) {
+            log.debug("Replay for user {} runs before all queued messages are written", userId);
+        }
+        
+        long after = cursor.get();
+        int sent = 0;
+        while (sent < maxMessages) {
+            int limit = Math.min(batchSize, maxMessages - sent);
+            // Fetch one extra row to know whether another frame follows
+            List<MessageDTO> rows = messageRepository.findReceivedAfter(userId, after, PageRequest.of(0, limit + 1));
+            if (rows.isEmpty()) {
+                break;
+            }
+            boolean hasMore = rows.size() > limit;
+            List<MessageDTO> batch = hasMore ? rows.subList(0, limit) : rows;
+            
+            messagingTemplate.convertAndSendToUser(username, "/queue/replay",
+                    MessageReplayDto.builder().messages(batch).hasMore(hasMore).build(),
+                    sessionHeaders(sessionId).getMessageHeaders());
+            sent += batch.size();
+            after = batch.get(batch.size() - 1).id();
+            if (!hasMore) {
+                break;
+            }
+        }
+        
+        if (sent > 0) {
+            log.debug("Replayed {} missed messages to user {} (session {})", sent, userId, sessionId);
+        }
+        return sent;
+    }
+    
+    // Session id header: the user destination resolves to this session only, not every device
+    private static SimpMessageHeaderAccessor sessionHeaders(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        return accessor;
+    }
+}
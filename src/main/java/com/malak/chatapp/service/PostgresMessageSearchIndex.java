@@ -0,0 +1,93 @@
+package com.malak.chatapp.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.dto.MessageDTO;
+import com.malak.chatapp.dto.MessageSearchPageDto;
+import com.malak.chatapp.repository.MessageSearchRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Message search answered by PostgreSQL: a GIN index over the stored tsvector column
+ * messages.content_tsv, maintained by the database on every insert, so there is nothing to
+ * index from the application side. The column and index come from db/message-search.sql;
+ * startup only checks them, unless chat.search.manage-schema lets it create them (for schemas
+ * Hibernate recreates on every start).
+ */
+@Component
+@ConditionalOnProperty(name = "chat.search.mode", havingValue = "postgres", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class PostgresMessageSearchIndex implements MessageSearchIndex {
+    
+    private final MessageSearchRepository messageSearchRepository;
+    
+    // Inlined into SQL, hence restricted to a plain identifier
+    @Value("${chat.search.text-search-config:simple}")
+    private String textSearchConfig;
+    
+    // Adding the column rewrites messages under an exclusive lock: only for throwaway schemas
+    @Value("${chat.search.manage-schema:false}")
+    private boolean manageSchema;
+    
+    @PostConstruct
+    public void init() {
+        if (!textSearchConfig.matches("[a-z_]+")) {
+            throw new IllegalStateException("Invalid chat.search.text-search-config: " + textSearchConfig);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareIndex() {
+        try {
+            if (manageSchema) {
+                if (messageSearchRepository.createIndex(textSearchConfig)) {
+                    log.info("Built messages.content_tsv with the {} configuration", textSearchConfig);
+                }
+            } else {
+                String config = messageSearchRepository.findContentTsvConfig();
+                if (config == null || !messageSearchRepository.indexExists()) {
+                    log.error("messages.content_tsv or its index is missing, message search will fail: "
+                            + "apply db/message-search.sql");
+                    return;
+                }
+                if (!config.equals(textSearchConfig)) {
+                    log.error("messages.content_tsv uses the {} configuration but chat.search.text-search-config is {}: "
+                            + "rebuild the column (db/message-search.sql) or change the property", config, textSearchConfig);
+                    return;
+                }
+            }
+            log.info("Message full-text index ready ({} configuration)", textSearchConfig);
+        } catch (Exception e) {
+            log.error("Could not check the message full-text index: {}", e.getMessage());
+        }
+    }
+    
+    @Override
+    public void index(List<Message> messages) {
+        // Maintained by PostgreSQL (generated column)
+    }
+    
+    @Override
+    public MessageSearchPageDto search(Long userId, String query, int page, int size) {
+        // Fetch one extra row to know whether another page exists
+        List<MessageDTO> rows = messageSearchRepository.search(
+                textSearchConfig, userId, query, size + 1, page * size);
+        boolean hasMore = rows.size() > size;
+        return MessageSearchPageDto.builder()
+                .messages(hasMore ? rows.subList(0, size) : rows)
+                .page(page)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.malak.chatapp.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.dto.UserStatusDTO;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes ONLINE/OFFLINE changes to a user's friends off the WebSocket event thread.
+ * Changes are held for a short coalescing window so a connect/disconnect burst only
+ * sends the final status, and nothing is sent when the burst nets out to the status the
+ * window started from. Nothing is remembered across windows: the store only reports
+ * first-session and last-session transitions, which are already deduplicated cluster-wide,
+ * while a per-node "last sent" would go stale as soon as another node reports a change.
+ * Recipients come from one friend identity query and are filtered by the broker's
+ * user registry, so there is no lookup per friend.
+ * Fan-outs of the same user run one after the other (each is chained on the previous one),
+ * so friends never get an older window's status after a newer one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceFanoutService {
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry simpUserRegistry;
+    private final FriendshipService friendshipService;
+    private final UserService userService;
+    
+    @Value("${chat.presence.fanout.threads:2}")
+    private int threads;
+    
+    @Value("${chat.presence.fanout.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${chat.presence.fanout.coalesce-window-ms:250}")
+    private long coalesceWindowMs;
+    
+    // before: what friends were told until this window opened (the opposite of its first change)
+    private record PendingStatus(String status, LocalDateTime changedAt, String before) {}
+    
+    // userId -> latest status waiting for its window to close
+    private final ConcurrentHashMap<Long, PendingStatus> pending = new ConcurrentHashMap<>();
+    
+    // userId -> last fan-out submitted for that user, until it completes
+    private final ConcurrentHashMap<Long, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    
+    private ScheduledExecutorService scheduler;
+    private ThreadPoolExecutor workers;
+    
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("presence-coalesce"));
+        // CallerRunsPolicy: when the queue is full the scheduler thread does the send itself,
+        // which holds back new flushes instead of dropping updates
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("presence-fanout"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdown();
+    }
+    
+    /**
+     * Record a status change. Returns immediately; friends are notified once the
+     * coalescing window for this user closes.
+     */
+    public void publish(Long userId, String status) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean[] opened = new boolean[1];
+        pending.compute(userId, (id, open) -> {
+            if (open == null) {
+                opened[0] = true;
+                return new PendingStatus(status, now, "ONLINE".equals(status) ? "OFFLINE" : "ONLINE");
+            }
+            return new PendingStatus(status, now, open.before());
+        });
+        if (!opened[0]) {
+            // A flush is already scheduled and will pick up the newest status
+            return;
+        }
+        try {
+            scheduler.schedule(() -> flush(userId), coalesceWindowMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.remove(userId);
+            log.warn("Presence fan-out stopped, dropping {} status for user {}", status, userId);
+        }
+    }
+    
+    void flush(Long userId) {
+        PendingStatus change = pending.remove(userId);
+        if (change == null || change.status().equals(change.before())) {
+            return;
+        }
+        CompletableFuture<Void> next = inFlight.compute(userId, (id, previous) ->
+                (previous == null ? CompletableFuture.<Void>completedFuture(null) : previous)
+                        .thenRunAsync(() -> fanOut(userId, change), workers));
+        next.whenComplete((ignored, error) -> inFlight.remove(userId, next));
+    }
+    
+    void fanOut(Long userId, PendingStatus change) {
+        try {
+            UserIdentity user = userService.getIdentityById(userId);
+            
+            UserStatusDTO statusDTO = UserStatusDTO.builder()
+                .userId(userId)
+                .username(user.username())
+                .status(change.status())
+                .lastSeen(change.status().equals("OFFLINE") ? change.changedAt() : null)
+                .build();
+            
+            List<UserIdentity> friends = friendshipService.getFriendIdentities(userId);
+            int sent = 0;
+            for (UserIdentity friend : friends) {
+                // Only friends with a live session have anywhere to receive it
+                if (simpUserRegistry.getUser(friend.username()) != null) {
+                    messagingTemplate.convertAndSendToUser(friend.username(), "/queue/status", statusDTO);
+                    sent++;
+                }
+            }
+            
+            log.info("Notified {}/{} friends about user {} status: {}", sent, friends.size(), userId, change.status());
+            
+        } catch (Exception e) {
+            log.error("Error notifying friends about status change for user {}: {}", userId, e.getMessage());
+        }
+    }
+    
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.malak.chatapp.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Where presence (open sessions, last seen) and active typing indicators live.
+ * chat.presence.store=memory keeps them in this JVM (single instance),
+ * chat.presence.store=shared keeps them in a store every instance can see.
+ */
+public interface PresenceStore {
+    
+    /**
+     * Register a session. Returns true when it is the user's first one.
+     */
+    boolean addSession(Long userId, String sessionId);
+    
+    /**
+     * Remove a session. Returns true when it was the user's last one.
+     * Unknown sessions (e.g. a duplicate disconnect event) return false.
+     */
+    boolean removeSession(Long userId, String sessionId);
+    
+    boolean isOnline(Long userId);
+    
+    int getSessionCount(Long userId);
+    
+    /**
+     * Connect time of each open session, oldest first
+     */
+    List<LocalDateTime> getSessionConnectTimes(Long userId);
+    
+    List<Long> getOnlineUserIds();
+    
+    void setLastSeen(Long userId, LocalDateTime lastSeen);
+    
+    LocalDateTime getLastSeen(Long userId);
+    
+    void markTyping(Long userId, Long recipientId);
+    
+    void clearTyping(Long userId, Long recipientId);
+    
+    boolean isTyping(Long userId, Long recipientId);
+    
+    /**
+     * Called periodically. Renews this instance's lease and cleans up after instances
+     * whose lease ran out. Returns the users that went offline because of that cleanup.
+     */
+    List<Long> heartbeat();
+}
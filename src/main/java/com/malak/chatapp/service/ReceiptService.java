@@ -0,0 +1,115 @@
+package com.malak.chatapp.service;
+
+import java.util.Optional;
+
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.dto.ReceiptDTO;
+import com.malak.chatapp.dto.ReceiptStateDto;
+import com.malak.chatapp.dto.ReceiptType;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.exception.ResourceNotFoundException;
+import com.malak.chatapp.exception.UnauthorizedActionException;
+import com.malak.chatapp.repository.ConversationRepository;
+import com.malak.chatapp.repository.MessageRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivered / read receipts kept as per-conversation high-water marks on the
+ * conversation row instead of per-message flags. A receipt for message N covers
+ * every earlier message of the conversation, so acknowledging is a single
+ * conditional UPDATE and "seen up to" is a single primary-key read.
+ * Marks only move forward, so a receipt is first clamped to the newest message the
+ * peer actually sent: an id from the future would otherwise cover every later message.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReceiptService {
+    
+    private final ConversationRepository conversationRepository;
+    private final ConversationService conversationService;
+    private final ConversationSummaryService conversationSummaryService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MessageRepository messageRepository;
+    private final MessageWriteBehindQueue writeBehindQueue;
+    
+    /**
+     * Record that {@code reader} has received / read the messages {@code peer} sent up to messageId.
+     * The peer is only notified when the mark actually moved, so duplicate or
+     * out-of-order receipts cost one UPDATE and nothing else.
+     * Returns true if the mark advanced.
+     */
+    public boolean acknowledge(UserIdentity reader, UserIdentity peer, long messageId, ReceiptType type) {
+        Long conversationId = conversationService.findConversationId(reader.id(), peer.id())
+            .orElseThrow(() -> new ResourceNotFoundException(
+                "No conversation between " + reader.username() + " and " + peer.username()));
+        
+        Long latest = latestFromPeer(conversationId, peer.id());
+        if (latest == null) {
+            return false; // The peer has not sent anything yet
+        }
+        long acknowledged = Math.min(messageId, latest);
+        
+        int updated = type == ReceiptType.READ
+            ? conversationRepository.advanceRead(conversationId, reader.id(), acknowledged)
+            : conversationRepository.advanceDelivered(conversationId, reader.id(), acknowledged);
+        if (updated == 0) {
+            return false;
+        }
+        if (type == ReceiptType.READ) {
+            conversationSummaryService.markRead(conversationId, reader.id(), acknowledged);
+        }
+        
+        ReceiptDTO receipt = ReceiptDTO.builder()
+            .conversationId(conversationId)
+            .peer(reader.username())
+            .messageId(acknowledged)
+            .type(type)
+            .build();
+        messagingTemplate.convertAndSendToUser(peer.username(), "/queue/receipts", receipt);
+        log.debug("User {} marked conversation {} {} up to {}", reader.id(), conversationId, type, acknowledged);
+        return true;
+    }
+    
+    // Newest message from the peer, counting ones delivered live but not yet written (write-behind).
+    // The queue is checked first: a message leaves it only once it is committed.
+    private Long latestFromPeer(Long conversationId, Long peerId) {
+        Optional<Long> pending = writeBehindQueue.latestPendingId(conversationId, peerId);
+        Long persisted = messageRepository.findLatestIdFromSender(conversationId, peerId);
+        if (pending.isEmpty()) {
+            return persisted;
+        }
+        return persisted == null ? pending.get() : Math.max(pending.get(), persisted);
+    }
+    
+    /**
+     * Current receipt marks of the conversation between two users (either order).
+     * Only the two participants may read them.
+     */
+    @Transactional(readOnly = true)
+    public ReceiptStateDto getReceiptState(Long requesterId, Long userA, Long userB) {
+        if (!requesterId.equals(userA) && !requesterId.equals(userB)) {
+            throw new UnauthorizedActionException("Only participants can read the receipts of a conversation");
+        }
+        Conversation conversation = conversationRepository
+            .findByOrderedUsers(Math.min(userA, userB), Math.max(userA, userB))
+            .orElseThrow(() -> new ResourceNotFoundException(
+                "No conversation between users " + userA + " and " + userB));
+        
+        return ReceiptStateDto.builder()
+            .conversationId(conversation.getId())
+            .user1Id(conversation.getUser1().getId())
+            .user1LastDeliveredId(conversation.getUser1LastDeliveredId())
+            .user1LastReadId(conversation.getUser1LastReadId())
+            .user2Id(conversation.getUser2().getId())
+            .user2LastDeliveredId(conversation.getUser2LastDeliveredId())
+            .user2LastReadId(conversation.getUser2LastReadId())
+            .build();
+    }
+}
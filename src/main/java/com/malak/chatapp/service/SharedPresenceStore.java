@@ -0,0 +1,145 @@
+package com.malak.chatapp.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.malak.chatapp.repository.PresenceBackend;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cluster-wide presence store.
+ * Sessions and typing indicators are written to the shared backend tagged with this
+ * instance's node id, and each instance keeps a lease alive through heartbeat().
+ * When an instance dies without cleaning up, the first instance to notice its expired
+ * lease removes everything it owned and reports the users that went offline.
+ * Connects and disconnects are a single backend round trip, nothing touches the database.
+ */
+@Component
+@ConditionalOnProperty(name = "chat.presence.store", havingValue = "shared")
+@RequiredArgsConstructor
+@Slf4j
+public class SharedPresenceStore implements PresenceStore {
+    
+    private final PresenceBackend backend;
+    
+    // Same id that goes into message ids; no default here, two nodes sharing one would
+    // wipe each other's sessions on startup and mint colliding message ids
+    @Value("${chat.node-id:}")
+    private String nodeId;
+    
+    @Value("${chat.presence.lease-ms:30000}")
+    private long leaseMs;
+    
+    @PostConstruct
+    public void start() {
+        if (nodeId == null || nodeId.isBlank()) {
+            throw new IllegalStateException(
+                    "chat.node-id must be set to a value unique to this instance when chat.presence.store=shared");
+        }
+        // Anything still registered under our id is left over from a previous run of this node
+        List<Long> stale = backend.removeNode(nodeId);
+        if (!stale.isEmpty()) {
+            log.info("Removed stale presence of {} users from a previous run of node {}", stale.size(), nodeId);
+        }
+        backend.renewLease(nodeId, System.currentTimeMillis() + leaseMs);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        backend.removeNode(nodeId);
+    }
+    
+    @Override
+    public boolean addSession(Long userId, String sessionId) {
+        return backend.addSession(userId, sessionId, nodeId, System.currentTimeMillis()) == 1;
+    }
+    
+    @Override
+    public boolean removeSession(Long userId, String sessionId) {
+        return backend.removeSession(userId, sessionId) == 0;
+    }
+    
+    @Override
+    public boolean isOnline(Long userId) {
+        return getSessionCount(userId) > 0;
+    }
+    
+    @Override
+    public int getSessionCount(Long userId) {
+        return backend.getSessions(userId).size();
+    }
+    
+    @Override
+    public List<LocalDateTime> getSessionConnectTimes(Long userId) {
+        return backend.getSessions(userId).values().stream()
+                .map(PresenceBackend.SessionEntry::connectedAtMs)
+                .sorted()
+                .map(SharedPresenceStore::toLocalDateTime)
+                .toList();
+    }
+    
+    @Override
+    public List<Long> getOnlineUserIds() {
+        return new ArrayList<>(backend.getOnlineUserIds());
+    }
+    
+    @Override
+    public void setLastSeen(Long userId, LocalDateTime lastSeen) {
+        backend.setLastSeen(userId, lastSeen.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+    
+    @Override
+    public LocalDateTime getLastSeen(Long userId) {
+        Long lastSeenMs = backend.getLastSeen(userId);
+        return lastSeenMs == null ? null : toLocalDateTime(lastSeenMs);
+    }
+    
+    @Override
+    public void markTyping(Long userId, Long recipientId) {
+        backend.setTyping(userId, recipientId, nodeId);
+    }
+    
+    @Override
+    public void clearTyping(Long userId, Long recipientId) {
+        backend.clearTyping(userId, recipientId);
+    }
+    
+    @Override
+    public boolean isTyping(Long userId, Long recipientId) {
+        return backend.isTyping(userId, recipientId);
+    }
+    
+    @Override
+    public List<Long> heartbeat() {
+        long now = System.currentTimeMillis();
+        backend.renewLease(nodeId, now + leaseMs);
+        
+        List<Long> offline = new ArrayList<>();
+        backend.getLeases().entrySet().stream()
+                .filter(lease -> lease.getValue() < now && !lease.getKey().equals(nodeId))
+                .sorted(Comparator.comparing(Map.Entry::getValue))
+                .forEach(lease -> {
+                    List<Long> users = backend.removeNode(lease.getKey());
+                    log.warn("Presence lease of node {} expired, {} users went offline", lease.getKey(), users.size());
+                    offline.addAll(users);
+                });
+        return offline;
+    }
+    
+    private static LocalDateTime toLocalDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+}
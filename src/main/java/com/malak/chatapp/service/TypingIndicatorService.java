@@ -1,15 +1,20 @@
 package com.malak.chatapp.service;
 
-import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.malak.chatapp.domain.User;
 import com.malak.chatapp.dto.TypingIndicatorDTO;
+import com.malak.chatapp.dto.UserIdentity;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -18,40 +23,72 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TypingIndicatorService {
     
+    private static final int WHEEL_SIZE = 64;
+    
     private final SimpMessagingTemplate messagingTemplate;
     private final UserService userService;
+    private final PresenceStore presenceStore;
+    
+    @Value("${chat.typing.timeout-ms:5000}")
+    private long typingTimeoutMs;
+    
+    @Value("${chat.typing.tick-ms:250}")
+    private long tickMs;
     
-    // Key: "userId_recipientId", Value: expiration timestamp
-    private final ConcurrentHashMap<String, LocalDateTime> typingUsers = new ConcurrentHashMap<>();
+    @Value("${chat.typing.dispatch-queue-capacity:1000}")
+    private int dispatchQueueCapacity;
     
-    private static final int TYPING_TIMEOUT_SECONDS = 5;
+    // (userId, recipientId) -> expiry, see TypingTimerWheel
+    private TypingTimerWheel timerWheel;
+    
+    // Sends the automatic "stopped typing" events so the tick thread never waits on the broker
+    private ThreadPoolExecutor dispatcher;
+    
+    @PostConstruct
+    public void init() {
+        timerWheel = new TypingTimerWheel(tickMs, WHEEL_SIZE, System.currentTimeMillis());
+        dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(dispatchQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "typing-dispatch");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
     
     /**
-     * User started typing
+     * User started typing. Only the first frame notifies the recipient;
+     * frames while the indicator is active just push its expiry back.
      */
     public void userStartedTyping(Long userId, Long recipientId) {
-        String key = createKey(userId, recipientId);
-        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(TYPING_TIMEOUT_SECONDS);
-        
-        typingUsers.put(key, expiresAt);
+        boolean started = timerWheel.arm(new TypingKey(userId, recipientId), System.currentTimeMillis() + typingTimeoutMs);
         
-        // Notify recipient
-        sendTypingIndicator(userId, recipientId, true);
-        
-        log.debug("User {} started typing to user {}", userId, recipientId);
+        if (started) {
+            presenceStore.markTyping(userId, recipientId);
+            // Notify recipient
+            sendTypingIndicator(userId, recipientId, true);
+            log.debug("User {} started typing to user {}", userId, recipientId);
+        }
     }
     
     /**
-     * User stopped typing
+     * User stopped typing. Nothing is sent if the indicator already expired.
      */
     public void userStoppedTyping(Long userId, Long recipientId) {
-        String key = createKey(userId, recipientId);
-        typingUsers.remove(key);
+        boolean wasTyping = timerWheel.cancel(new TypingKey(userId, recipientId));
         
-        // Notify recipient
-        sendTypingIndicator(userId, recipientId, false);
-        
-        log.debug("User {} stopped typing to user {}", userId, recipientId);
+        if (wasTyping) {
+            presenceStore.clearTyping(userId, recipientId);
+            // Notify recipient
+            sendTypingIndicator(userId, recipientId, false);
+            log.debug("User {} stopped typing to user {}", userId, recipientId);
+        }
     }
     
     /**
@@ -59,18 +96,18 @@ public class TypingIndicatorService {
      */
     private void sendTypingIndicator(Long userId, Long recipientId, boolean typing) {
         try {
-            User user = userService.findUserById(userId);
-            User recipient = userService.findUserById(recipientId);
+            UserIdentity user = userService.getIdentityById(userId);
+            UserIdentity recipient = userService.getIdentityById(recipientId);
             
             TypingIndicatorDTO dto = TypingIndicatorDTO.builder()
                 .userId(userId)
-                .username(user.getUsername())
+                .username(user.username())
                 .recipientId(recipientId)
                 .typing(typing)
                 .build();
             
             messagingTemplate.convertAndSendToUser(
-                recipient.getUsername(),
+                recipient.username(),
                 "/queue/typing",
                 dto
             );
@@ -79,45 +116,28 @@ public class TypingIndicatorService {
             log.error("Error sending typing indicator: {}", e.getMessage());
         }
     }
+    
     /**
-     * Cleanup expired typing indicators (runs every 3 seconds)
+     * Advance the timer wheel and send stop events for indicators that expired
      */
-    @Scheduled(fixedRate = 3000)
-    public void cleanupExpiredTypingIndicators() {
-        LocalDateTime now = LocalDateTime.now();
+    @Scheduled(fixedRateString = "${chat.typing.tick-ms:250}")
+    public void expireTypingIndicators() {
+        List<TypingKey> expired = timerWheel.advance(System.currentTimeMillis());
         
-        typingUsers.entrySet().removeIf(entry -> {
-            boolean expired = entry.getValue().isBefore(now);
-            
-            if (expired) {
-                // Parse key and send stop typing indicator
-                String[] parts = entry.getKey().split("_");
-                Long userId = Long.parseLong(parts[0]);
-                Long recipientId = Long.parseLong(parts[1]);
-                
-                sendTypingIndicator(userId, recipientId, false);
-                log.debug("Auto-stopped typing indicator for user {} to user {}", userId, recipientId);
-            }
-            
-            return expired;
-        });
+        for (TypingKey key : expired) {
+            dispatcher.execute(() -> {
+                presenceStore.clearTyping(key.userId(), key.recipientId());
+                sendTypingIndicator(key.userId(), key.recipientId(), false);
+                log.debug("Auto-stopped typing indicator for user {} to user {}", key.userId(), key.recipientId());
+            });
+        }
     }
     
     /**
-     * Check if user is typing to recipient
+     * Check if user is typing to recipient, on this instance or (shared store) any other
      */
     public boolean isUserTyping(Long userId, Long recipientId) {
-        String key = createKey(userId, recipientId);
-        LocalDateTime expiresAt = typingUsers.get(key);
-        
-        if (expiresAt == null) {
-            return false;
-        }
-        
-        return expiresAt.isAfter(LocalDateTime.now());
-    }
-    
-    private String createKey(Long userId, Long recipientId) {
-        return userId + "_" + recipientId;
+        return timerWheel.isArmed(new TypingKey(userId, recipientId), System.currentTimeMillis())
+                || presenceStore.isTyping(userId, recipientId);
     }
-}
\ No newline at end of file
+}
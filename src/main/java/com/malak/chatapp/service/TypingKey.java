@@ -0,0 +1,7 @@
+package com.malak.chatapp.service;
+
+/**
+ * Typing indicator key: who is typing to whom.
+ */
+public record TypingKey(long userId, long recipientId) {
+}
@@ -0,0 +1,66 @@
+package com.malak.chatapp.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token bucket per WebSocket session for inbound typing frames.
+ * Buckets are created on the first frame and removed when the session disconnects.
+ */
+@Component
+public class TypingRateLimiter {
+    
+    @Value("${chat.typing.rate-limit.capacity:5}")
+    private int capacity;
+    
+    @Value("${chat.typing.rate-limit.refill-per-second:2}")
+    private double refillPerSecond;
+    
+    // sessionId -> bucket
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    
+    /**
+     * Take one token for the session. Returns false when the session is over its limit.
+     */
+    public boolean tryAcquire(String sessionId) {
+        return tryAcquire(sessionId, System.nanoTime());
+    }
+    
+    boolean tryAcquire(String sessionId, long nowNanos) {
+        return buckets.computeIfAbsent(sessionId, id -> new TokenBucket(capacity, nowNanos))
+                .tryAcquire(nowNanos, capacity, refillPerSecond);
+    }
+    
+    public void removeSession(String sessionId) {
+        buckets.remove(sessionId);
+    }
+    
+    public int getTrackedSessions() {
+        return buckets.size();
+    }
+    
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastRefillNanos;
+        
+        TokenBucket(int capacity, long nowNanos) {
+            this.tokens = capacity;
+            this.lastRefillNanos = nowNanos;
+        }
+        
+        synchronized boolean tryAcquire(long nowNanos, int capacity, double refillPerSecond) {
+            long elapsed = nowNanos - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * refillPerSecond / 1_000_000_000d);
+                lastRefillNanos = nowNanos;
+            }
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
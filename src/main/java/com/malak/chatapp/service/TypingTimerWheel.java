@@ -0,0 +1,133 @@
+package com.malak.chatapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timer wheel for typing indicator expiry.
+ * Each key has at most one timeout object sitting in one bucket. Re-arming only moves
+ * the deadline forward; the bucket entry is moved lazily when its tick comes round and
+ * the deadline turns out to be later. A tick only touches the keys in its own bucket,
+ * so there is no scan over everyone who is typing.
+ *
+ * arm/cancel/isArmed are thread safe; advance must be called from a single thread.
+ */
+public class TypingTimerWheel {
+    
+    private static final class Timeout {
+        final TypingKey key;
+        volatile long deadline;
+        
+        Timeout(TypingKey key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+    
+    private final long tickMs;
+    private final int mask;
+    private final Queue<Timeout>[] buckets;
+    private final ConcurrentHashMap<TypingKey, Timeout> timeouts = new ConcurrentHashMap<>();
+    
+    // Tick whose bucket is being (or was last) processed
+    private volatile long lastTick;
+    
+    @SuppressWarnings("unchecked")
+    public TypingTimerWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize a power of two");
+        }
+        this.tickMs = tickMs;
+        this.mask = wheelSize - 1;
+        this.buckets = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = startMs / tickMs;
+    }
+    
+    /**
+     * Arm or re-arm the key to expire at the given time.
+     * Returns true when the key was not armed before.
+     */
+    public boolean arm(TypingKey key, long deadlineMs) {
+        boolean[] armed = new boolean[1];
+        timeouts.compute(key, (k, timeout) -> {
+            if (timeout == null) {
+                timeout = new Timeout(k, deadlineMs);
+                bucketFor(deadlineMs).add(timeout);
+                armed[0] = true;
+            } else {
+                timeout.deadline = deadlineMs;
+            }
+            return timeout;
+        });
+        return armed[0];
+    }
+    
+    /**
+     * Disarm the key. Returns true when it was armed.
+     */
+    public boolean cancel(TypingKey key) {
+        // The bucket entry stays behind and is skipped when its tick comes round
+        return timeouts.remove(key) != null;
+    }
+    
+    public boolean isArmed(TypingKey key, long nowMs) {
+        Timeout timeout = timeouts.get(key);
+        return timeout != null && timeout.deadline > nowMs;
+    }
+    
+    public int size() {
+        return timeouts.size();
+    }
+    
+    /**
+     * Process every tick up to now and return the keys that expired.
+     */
+    public List<TypingKey> advance(long nowMs) {
+        List<TypingKey> expired = new ArrayList<>();
+        long currentTick = nowMs / tickMs;
+        // After a long pause one pass over the whole wheel visits everything
+        long tick = Math.max(lastTick, currentTick - buckets.length);
+        
+        while (tick < currentTick) {
+            tick++;
+            lastTick = tick;
+            Queue<Timeout> bucket = buckets[(int) (tick & mask)];
+            // Only drain what was there when the tick started; re-armed entries may land in this bucket again
+            for (int pending = bucket.size(); pending > 0; pending--) {
+                Timeout timeout = bucket.poll();
+                if (timeout == null) {
+                    break;
+                }
+                expire(timeout, nowMs, expired);
+            }
+        }
+        return expired;
+    }
+    
+    private void expire(Timeout timeout, long nowMs, List<TypingKey> expired) {
+        timeouts.computeIfPresent(timeout.key, (key, current) -> {
+            if (current != timeout) {
+                // Cancelled (and possibly re-armed with a new timeout) since it was queued
+                return current;
+            }
+            if (timeout.deadline > nowMs) {
+                bucketFor(timeout.deadline).add(timeout);
+                return timeout;
+            }
+            expired.add(key);
+            return null;
+        });
+    }
+    
+    private Queue<Timeout> bucketFor(long deadlineMs) {
+        // Never the bucket being processed or one already passed this round
+        long tick = Math.max(deadlineMs / tickMs, lastTick + 1);
+        return buckets[(int) (tick & mask)];
+    }
+}
@@ -0,0 +1,93 @@
+package com.malak.chatapp.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bounded, TTL evicting cache of user identities (id, username, role) keyed both by
+ * username and by id. Misses are not cached, so a newly created user is visible
+ * immediately. Hit/miss statistics are published as cache.* metrics.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserIdentityCache {
+	
+	private final UserRepository userRepository;
+	private final MeterRegistry meterRegistry;
+	
+	@Value("${chat.cache.user-identity.max-size:10000}")
+	private long maxSize;
+	
+	@Value("${chat.cache.user-identity.ttl-seconds:600}")
+	private long ttlSeconds;
+	
+	private Cache<String, UserIdentity> byUsername;
+	private Cache<Long, UserIdentity> byId;
+	
+	@PostConstruct
+	public void init() {
+		byUsername = newCache();
+		byId = newCache();
+		CaffeineCacheMetrics.monitor(meterRegistry, byUsername, "userIdentityByUsername");
+		CaffeineCacheMetrics.monitor(meterRegistry, byId, "userIdentityById");
+	}
+	
+	private <K> Cache<K, UserIdentity> newCache() {
+		return Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.build();
+	}
+	
+	public Optional<UserIdentity> findByUsername(String username) {
+		UserIdentity identity = byUsername.get(username, key -> userRepository.findIdentityByUsername(key)
+				.map(this::cacheById)
+				.orElse(null));
+		return Optional.ofNullable(identity);
+	}
+	
+	public Optional<UserIdentity> findById(Long id) {
+		UserIdentity identity = byId.get(id, key -> userRepository.findIdentityById(key)
+				.map(this::cacheByUsername)
+				.orElse(null));
+		return Optional.ofNullable(identity);
+	}
+	
+	public void invalidate(UserIdentity identity) {
+		byUsername.invalidate(identity.username());
+		byId.invalidate(identity.id());
+	}
+	
+	public void invalidateUsername(String username) {
+		UserIdentity cached = byUsername.getIfPresent(username);
+		if (cached != null) {
+			invalidate(cached);
+		} else {
+			byUsername.invalidate(username);
+		}
+	}
+	
+	private UserIdentity cacheById(UserIdentity identity) {
+		byId.put(identity.id(), identity);
+		return identity;
+	}
+	
+	private UserIdentity cacheByUsername(UserIdentity identity) {
+		byUsername.put(identity.username(), identity);
+		return identity;
+	}
+}
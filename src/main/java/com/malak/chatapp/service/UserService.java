@@ -1,8 +1,10 @@
 package com.malak.chatapp.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -10,6 +12,8 @@ import com.malak.chatapp.domain.Role;
 import com.malak.chatapp.domain.User;
 import com.malak.chatapp.dto.CreateUserDto;
 import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.dto.UserSearchPageDto;
 import com.malak.chatapp.exception.ResourceAlreadyExistsException;
 import com.malak.chatapp.exception.ResourceNotFoundException;
 import com.malak.chatapp.repository.UserRepository;
@@ -22,6 +26,8 @@ public class UserService {
 	
 	private final UserRepository userRepository;
 	private final PasswordEncoder passwordEncoder;
+	private final UserIdentityCache userIdentityCache;
+	private final UsernameAutocompleteIndex usernameAutocompleteIndex;
 	
 	public User createUser(CreateUserDto createUserDto, Role role) {
 		Optional<User> optionalUser =  userRepository.findByUsername(createUserDto.getUsername());
@@ -35,7 +41,11 @@ public class UserService {
 				.password(passwordEncoder.encode(createUserDto.getPassword()))
 				.role(role).build();
 		
-		return userRepository.save(user);
+		// Drop anything cached under this username so the new row is what gets loaded
+		userIdentityCache.invalidateUsername(user.getUsername());
+		User saved = userRepository.save(user);
+		usernameAutocompleteIndex.add(saved);
+		return saved;
 	}
 
 	public UserDto getUserById(Long userId) {
@@ -56,6 +66,20 @@ public class UserService {
 				() -> new ResourceNotFoundException("no user with this id"));
 	}
 	
+	// Cached lookups for the WebSocket hot path (no password, no entity)
+	public UserIdentity getIdentityByUsername(String username) {
+		return userIdentityCache.findByUsername(username).orElseThrow(
+				() -> new ResourceNotFoundException("no user with this username"));
+	}
+	public UserIdentity getIdentityById(long id) {
+		return userIdentityCache.findById(id).orElseThrow(
+				() -> new ResourceNotFoundException("no user with this id"));
+	}
+	// Entity reference for associations, no select issued
+	public User getReference(UserIdentity identity) {
+		return userRepository.getReferenceById(identity.id());
+	}
+	
 
 	public List<UserDto> findAllUsers() {
 		List<User> users = userRepository.findAll();
@@ -69,16 +93,47 @@ public class UserService {
 		return usersDto;
 	}
 	
-	public List<UserDto> searchUsersByUsername(String query) {
-	    List<User> users = userRepository.searchByUsername(query);
-
-	    return users.stream()
-	        .map(user -> UserDto.builder()
-	                .id(user.getId())
-	                .username(user.getUsername())
-	                .role(user.getRole())
-	                .build())
-	        .toList();
+	/**
+	 * Case-insensitive prefix search, answered from the in-memory trie once it is built and
+	 * from the index on users.username_lower before that (both return the same rows).
+	 * The cursor is the lowercased username and id of the last row of the previous page.
+	 */
+	public UserSearchPageDto searchUsersByUsername(String query, String cursor, Long cursorId, int size) {
+		List<UserDto> rows = usernameAutocompleteIndex.isReady()
+				? usernameAutocompleteIndex.findByPrefix(query, cursor, cursorId, size + 1)
+				: userRepository.searchByUsernamePrefix(prefixPattern(query), cursor == null ? "" : cursor,
+						cursorId == null ? 0L : cursorId, PageRequest.of(0, size + 1));
+		return toSearchPage(rows, size);
+	}
+	
+	// Typo-tolerant suggestions; plain prefix matches from SQL until the trie is built
+	public List<UserDto> autocompleteUsernames(String query, int limit) {
+		if (usernameAutocompleteIndex.isReady()) {
+			return usernameAutocompleteIndex.suggest(query, limit);
+		}
+		return userRepository.searchByUsernamePrefix(prefixPattern(query), "", 0L, PageRequest.of(0, limit));
+	}
+	
+	// LIKE pattern for names starting with query; wildcards are escaped since "_" is common in usernames
+	public static String prefixPattern(String query) {
+		String normalized = query == null ? "" : User.normalize(query.trim());
+		return normalized
+				.replace("\\", "\\\\")
+				.replace("%", "\\%")
+				.replace("_", "\\_") + "%";
+	}
+	
+	// rows holds up to size + 1 entries, the extra one only tells whether another page exists
+	public static UserSearchPageDto toSearchPage(List<UserDto> rows, int size) {
+		boolean hasMore = rows.size() > size;
+		List<UserDto> users = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+		UserDto last = users.isEmpty() ? null : users.get(users.size() - 1);
+		return UserSearchPageDto.builder()
+				.users(users)
+				.nextCursor(last == null ? null : User.normalize(last.getUsername()))
+				.nextCursorId(last == null ? null : last.getId())
+				.hasMore(hasMore)
+				.build();
 	}
 
 }
@@ -2,12 +2,12 @@ package com.malak.chatapp.service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.dto.UserSessionsDTO;
 import com.malak.chatapp.dto.UserStatusDTO;
 
 import lombok.RequiredArgsConstructor;
@@ -18,111 +18,95 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class UserStatusService {
     
-    private final SimpMessagingTemplate messagingTemplate;
-    private final FriendRequestService friendRequestService;
-    private final FriendshipService friendshipService;
+    private final PresenceFanoutService presenceFanoutService;
+    private final PresenceStore presenceStore;
     private final UserService userService;
-    // concurrentHashMap is a data structure we will store the details of onlineUsers, and lastSeen
-    // userId -> sessionId
-    private final ConcurrentHashMap<Long, String> onlineUsers = new ConcurrentHashMap<>();
-    
-    // userId -> lastSeen timestamp
-    private final ConcurrentHashMap<Long, LocalDateTime> lastSeenMap = new ConcurrentHashMap<>();
     
     /**
-     * Mark user as online and notify friends
+     * Register a session and notify friends if it is the user's first one
      */
     public void userConnected(Long userId, String sessionId) {
-        onlineUsers.put(userId, sessionId);
-        lastSeenMap.put(userId, LocalDateTime.now());
+        boolean firstSession = presenceStore.addSession(userId, sessionId);
         
-        log.info("User {} connected with session {}", userId, sessionId);
+        log.info("User {} connected with session {}{}", userId, sessionId, firstSession ? "" : " (already online)");
         
-        // Notify all friends that this user is now online
-        notifyFriendsAboutStatus(userId, "ONLINE");
+        if (firstSession) {
+            // Notify friends (asynchronously, coalesced with rapid reconnects)
+            presenceFanoutService.publish(userId, "ONLINE");
+        }
     }
     
     /**
-     * Mark user as offline and notify friends
+     * Drop a session and notify friends once the user's last session is gone
      */
-    public void userDisconnected(Long userId) {
-        String sessionId = onlineUsers.remove(userId);
-        lastSeenMap.put(userId, LocalDateTime.now());
+    public void userDisconnected(Long userId, String sessionId) {
+        boolean lastSession = presenceStore.removeSession(userId, sessionId);
         
-        log.info("User {} disconnected (session {})", userId, sessionId);
+        log.info("User {} disconnected (session {}){}", userId, sessionId, lastSession ? "" : ", other sessions still open");
         
-        // Notify all friends that this user is now offline
-        notifyFriendsAboutStatus(userId, "OFFLINE");
+        if (lastSession) {
+            presenceStore.setLastSeen(userId, LocalDateTime.now());
+            // Notify friends (asynchronously, coalesced with rapid reconnects)
+            presenceFanoutService.publish(userId, "OFFLINE");
+        }
     }
     
     /**
-     * Check if user is online
+     * Check if user is online (on any device)
      */
     public boolean isUserOnline(Long userId) {
-        return onlineUsers.containsKey(userId);
+        return presenceStore.isOnline(userId);
     }
     
     /**
      * Get last seen timestamp
      */
     public LocalDateTime getLastSeen(Long userId) {
-        return lastSeenMap.getOrDefault(userId, null);
+        return presenceStore.getLastSeen(userId);
+    }
+    
+    /**
+     * Keep this instance's presence lease alive, and tell friends about users
+     * whose sessions were on an instance that stopped without cleaning up
+     */
+    @Scheduled(fixedRateString = "${chat.presence.heartbeat-ms:10000}")
+    public void heartbeat() {
+        for (Long userId : presenceStore.heartbeat()) {
+            presenceStore.setLastSeen(userId, LocalDateTime.now());
+            presenceFanoutService.publish(userId, "OFFLINE");
+        }
     }
     
     /**
      * Get all online users (for debugging)
      */
     public List<Long> getOnlineUsers() {
-        return onlineUsers.keySet().stream().toList();
+        return presenceStore.getOnlineUserIds();
     }
     
     /**
      * Get user status DTO
      */
     public UserStatusDTO getUserStatus(Long userId) {
-        User user = userService.findUserById(userId);
+        UserIdentity user = userService.getIdentityById(userId);
         boolean online = isUserOnline(userId);
         
         return UserStatusDTO.builder()
             .userId(userId)
-            .username(user.getUsername())
+            .username(user.username())
             .status(online ? "ONLINE" : "OFFLINE")
             .lastSeen(online ? null : getLastSeen(userId))
             .build();
     }
     
     /**
-     * Notify all friends about user's status change
+     * Get the user's open sessions
      */
-    private void notifyFriendsAboutStatus(Long userId, String status) {
-        try {
-            // Get user's friends
-            List<Long> friendIds = friendshipService.getFriendIds(userId);
-            User user = userService.findUserById(userId);
-            
-            UserStatusDTO statusDTO = UserStatusDTO.builder()
-                .userId(userId)
-                .username(user.getUsername())
-                .status(status)
-                .lastSeen(status.equals("OFFLINE") ? LocalDateTime.now() : null)
-                .build();
-            
-            // Send status update to each friend
-            for (Long friendId : friendIds) {
-                if (isUserOnline(friendId)) {
-                	User recipient = userService.findUserById(friendId);
-                    messagingTemplate.convertAndSendToUser(
-                    	recipient.getUsername(),
-                        "/queue/status",
-                        statusDTO
-                    );
-                }
-            }
-            
-            log.info("Notified {} friends about user {} status: {}", friendIds.size(), userId, status);
-            
-        } catch (Exception e) {
-            log.error("Error notifying friends about status change for user {}: {}", userId, e.getMessage());
-        }
+    public UserSessionsDTO getUserSessions(Long userId) {
+        return UserSessionsDTO.builder()
+            .userId(userId)
+            .sessionCount(presenceStore.getSessionCount(userId))
+            .connectedAt(presenceStore.getSessionConnectTimes(userId))
+            .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,418 @@
+package com.malak.chatapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.repository.UserRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-JVM radix trie over lowercased usernames, so autocomplete never touches the database.
+ * Edges carry whole label strings and children sit in arrays sorted by first character, which
+ * keeps the node count near two per user; users ending at a node are kept sorted by id. A
+ * depth-first walk therefore visits them in the same (usernameLower, id) order as the SQL
+ * path, so both can hand out the same cursors.
+ * Typo-tolerant lookups walk the trie with an edit distance row per character (Levenshtein
+ * plus adjacent transpositions) and drop every branch that can no longer reach the top k.
+ * Every instance builds its own trie from the users table at startup and sees users
+ * registered through it right away. Users registered on other instances are picked up by
+ * refresh(), which reads rows by id past what earlier loads saw. Each id range is read by two
+ * consecutive refreshes, so a row whose insert commits after a higher id is still found if
+ * it commits within one refresh interval.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UsernameAutocompleteIndex {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final UserDto[] NO_USERS = new UserDto[0];
+
+    private final UserRepository userRepository;
+
+    @Value("${chat.users.autocomplete.enabled:true}")
+    private boolean enabled;
+
+    private final Node root = new Node("");
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Until the first build completes, callers fall back to SQL
+    private volatile boolean ready;
+    private int size;
+    // Highest id any load has read, and where the next refresh starts (the previous refresh's
+    // high mark); only the startup build and the scheduler thread touch these
+    private long loadedThrough;
+    private long refreshFrom;
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        UserDto[] users = NO_USERS; // Usernames whose lowercased form ends here ("John" and "john"), by id
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        // Binary search on first characters, same contract as Arrays.binarySearch
+        int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        loadedThrough = load(0L);
+        refreshFrom = loadedThrough;
+        ready = true;
+        log.info("Username autocomplete index built with {} users", size());
+    }
+
+    @Scheduled(fixedDelayString = "${chat.users.autocomplete.refresh-ms:30000}",
+            initialDelayString = "${chat.users.autocomplete.refresh-ms:30000}")
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        int before = size();
+        long highest = load(refreshFrom);
+        refreshFrom = loadedThrough;
+        loadedThrough = Math.max(loadedThrough, highest);
+        int added = size() - before;
+        if (added > 0) {
+            log.debug("Username autocomplete index picked up {} users registered elsewhere", added);
+        }
+    }
+
+    // Adds every user with an id above after; returns the highest id read (after if none)
+    private long load(long after) {
+        List<UserDto> rows;
+        do {
+            rows = userRepository.findDtosAfter(after, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (UserDto user : rows) {
+                add(user);
+            }
+            if (!rows.isEmpty()) {
+                after = rows.get(rows.size() - 1).getId();
+            }
+        } while (rows.size() == REBUILD_BATCH_SIZE);
+        return after;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(User user) {
+        if (enabled && user != null && user.getId() != null) {
+            add(new UserDto(user.getId(), user.getUsername(), user.getRole()));
+        }
+    }
+
+    void add(UserDto user) {
+        String key = User.normalize(user.getUsername());
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                int index = node.childIndex(key.charAt(i));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(i));
+                    node.children = insertAt(node.children, -index - 1, leaf);
+                    node = leaf;
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length()) {
+                    // Split the edge: node -> middle -> child
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children = new Node[] { child };
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                node = child;
+                i += common;
+            }
+            int position = 0;
+            while (position < node.users.length && node.users[position].getId() < user.getId()) {
+                position++;
+            }
+            if (position < node.users.length && node.users[position].getId() == user.getId()) {
+                return;
+            }
+            UserDto[] users = new UserDto[node.users.length + 1];
+            System.arraycopy(node.users, 0, users, 0, position);
+            users[position] = user;
+            System.arraycopy(node.users, position, users, position + 1, node.users.length - position);
+            node.users = users;
+            size++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Users whose lowercased username starts with prefix and whose (usernameLower, id) sorts
+     * after (cursor, cursorId), in that order: the same rows UserRepository.searchByUsernamePrefix
+     * returns. A null cursor starts from the beginning, a null cursorId counts as 0.
+     */
+    public List<UserDto> findByPrefix(String prefix, String cursor, Long cursorId, int limit) {
+        String key = normalizeQuery(prefix);
+        if (cursor != null && cursor.isEmpty()) {
+            cursor = null;
+        }
+        long afterId = cursorId == null ? 0L : cursorId;
+        List<UserDto> result = new ArrayList<>(Math.min(limit, 64));
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            StringBuilder path = new StringBuilder();
+            int i = 0;
+            while (i < key.length()) {
+                int index = node.childIndex(key.charAt(i));
+                if (index < 0) {
+                    return result;
+                }
+                node = node.children[index];
+                int length = Math.min(node.label.length(), key.length() - i);
+                if (!node.label.regionMatches(0, key, i, length)) {
+                    return result;
+                }
+                path.append(node.label);
+                i += node.label.length();
+            }
+            collect(node, path, cursor, afterId, limit, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Depth-first in key order; path is the full key of node
+    private void collect(Node node, StringBuilder path, String cursor, long cursorId, int limit, List<UserDto> result) {
+        boolean emit = true;
+        long afterId = Long.MIN_VALUE;
+        if (cursor != null) {
+            String key = path.toString();
+            int order = key.compareTo(cursor);
+            if (order < 0 && !cursor.startsWith(key)) {
+                return; // Every key below sorts before the cursor
+            }
+            if (order == 0) {
+                afterId = cursorId; // Same name: only the ids after the cursor's
+            }
+            if (order >= 0) {
+                cursor = null; // Every key below is longer, so it sorts after the cursor
+            } else {
+                emit = false; // key is a proper prefix of the cursor, so it sorts before it
+            }
+        }
+        if (emit) {
+            for (UserDto user : node.users) {
+                if (result.size() == limit) {
+                    return;
+                }
+                if (user.getId() > afterId) {
+                    result.add(user);
+                }
+            }
+        }
+        for (Node child : node.children) {
+            if (result.size() == limit) {
+                return;
+            }
+            int length = path.length();
+            path.append(child.label);
+            collect(child, path, cursor, cursorId, limit, result);
+            path.setLength(length);
+        }
+    }
+
+    /**
+     * Top limit usernames for query: exact prefix matches first, then usernames one or two
+     * edits away from starting with query (one for queries of 3 to 5 characters, two from 6,
+     * none below since almost everything is within one edit of a two-letter prefix).
+     * Ties are broken by (usernameLower, id).
+     */
+    public List<UserDto> suggest(String query, int limit) {
+        String key = normalizeQuery(query);
+        int maxEdits = key.length() <= 2 ? 0 : key.length() <= 5 ? 1 : 2;
+        List<UserDto> exact = findByPrefix(key, null, null, limit);
+        if (exact.size() == limit || maxEdits == 0) {
+            return exact;
+        }
+
+        Suggestions suggestions = new Suggestions(maxEdits, limit);
+        int[] row = new int[key.length() + 1];
+        for (int j = 0; j < row.length; j++) {
+            row[j] = j;
+        }
+        lock.readLock().lock();
+        try {
+            for (Node child : root.children) {
+                if (suggestions.full(0)) {
+                    break;
+                }
+                visit(child, key, row, null, '\0', row[key.length()], suggestions);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return suggestions.merged();
+    }
+
+    /**
+     * row[j] is the distance between the first j query characters and the path so far, so
+     * row[n] is the distance for "query is a prefix of this path". best is the smallest row[n]
+     * seen on the way down: every username below the current node is within best edits.
+     */
+    private void visit(Node node, String query, int[] row, int[] previousRow, char previousChar, int best,
+            Suggestions suggestions) {
+        int n = query.length();
+        for (int k = 0; k < node.label.length(); k++) {
+            char c = node.label.charAt(k);
+            int[] next = new int[n + 1];
+            next[0] = row[0] + 1;
+            int rowMin = next[0];
+            for (int j = 1; j <= n; j++) {
+                char q = query.charAt(j - 1);
+                int cost = q == c ? 0 : 1;
+                int distance = Math.min(Math.min(next[j - 1] + 1, row[j] + 1), row[j - 1] + cost);
+                if (previousRow != null && j > 1 && q == previousChar && query.charAt(j - 2) == c) {
+                    distance = Math.min(distance, previousRow[j - 2] + 1);
+                }
+                next[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            best = Math.min(best, next[n]);
+            previousRow = row;
+            previousChar = c;
+            row = next;
+            // Nothing below can do better than this bound; skip it if the top k is settled there
+            if (suggestions.full(Math.min(best, rowMin))) {
+                return;
+            }
+        }
+
+        if (best <= suggestions.maxEdits) {
+            for (UserDto user : node.users) {
+                suggestions.add(best, user);
+            }
+        }
+        for (Node child : node.children) {
+            if (suggestions.full(0)) {
+                return;
+            }
+            visit(child, query, row, previousRow, previousChar, best, suggestions);
+        }
+    }
+
+    // Matches bucketed by distance; the walk runs in key order, so each bucket is already sorted
+    private static final class Suggestions {
+        final int maxEdits;
+        final int limit;
+        final List<List<UserDto>> byDistance = new ArrayList<>();
+
+        Suggestions(int maxEdits, int limit) {
+            this.maxEdits = maxEdits;
+            this.limit = limit;
+            for (int d = 0; d <= maxEdits; d++) {
+                byDistance.add(new ArrayList<>());
+            }
+        }
+
+        void add(int distance, UserDto user) {
+            if (!full(distance)) {
+                byDistance.get(distance).add(user);
+            }
+        }
+
+        // True once limit matches at distance <= bound exist: later keys at that distance lose the tie
+        boolean full(int bound) {
+            if (bound > maxEdits) {
+                return true;
+            }
+            int count = 0;
+            for (int d = 0; d <= bound; d++) {
+                count += byDistance.get(d).size();
+            }
+            return count >= limit;
+        }
+
+        List<UserDto> merged() {
+            List<UserDto> result = new ArrayList<>(limit);
+            for (List<UserDto> bucket : byDistance) {
+                for (UserDto user : bucket) {
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                    result.add(user);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static String normalizeQuery(String query) {
+        return query == null ? "" : User.normalize(query.trim());
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Node[] insertAt(Node[] children, int index, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, index);
+        result[index] = child;
+        System.arraycopy(children, index, result, index + 1, children.length - index);
+        return result;
+    }
+}
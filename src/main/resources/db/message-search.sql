@@ -0,0 +1,13 @@
+-- Full-text search over messages.content (chat.search.mode=postgres).
+-- Apply once as a migration, outside peak hours: adding the stored column rewrites the
+-- messages table under an ACCESS EXCLUSIVE lock. The configuration ('simple' here) must
+-- match chat.search.text-search-config; to change it, drop content_tsv and run this again.
+-- Startup only checks that the column and index exist unless chat.search.manage-schema=true.
+
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS content_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(content, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_messages_content_tsv ON messages USING GIN (content_tsv);
+
+-- Expression index used before the stored column existed
+DROP INDEX IF EXISTS idx_messages_content_fts;
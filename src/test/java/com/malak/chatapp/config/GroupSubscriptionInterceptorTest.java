@@ -0,0 +1,120 @@
+package com.malak.chatapp.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.service.GroupService;
+import com.malak.chatapp.service.GroupSubscriptionRegistry;
+import com.malak.chatapp.service.UserService;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupSubscriptionInterceptorTest {
+
+    @Mock
+    private GroupService groupService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private GroupSubscriptionRegistry subscriptionRegistry;
+
+    @Mock
+    private MessageChannel channel;
+
+    @InjectMocks
+    private GroupSubscriptionInterceptor interceptor;
+
+    private Message<byte[]> frame(StompCommand command, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setSessionId("s1");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setUser(new UsernamePasswordAuthenticationToken("bob", null));
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void subscribe_member_passes() {
+        when(userService.getIdentityByUsername("bob")).thenReturn(new UserIdentity(2L, "bob", Role.USER));
+        when(groupService.isMember(10L, 2L)).thenReturn(true);
+
+        Message<byte[]> message = frame(StompCommand.SUBSCRIBE, "/topic/groups.10");
+
+        assertSame(message, interceptor.preSend(message, channel));
+        verify(subscriptionRegistry).subscribed("s1", "sub-0", 10L, 2L);
+        verify(subscriptionRegistry, never()).unsubscribed(any(), any());
+    }
+
+    @Test
+    void subscribe_nonMember_rejected() {
+        when(userService.getIdentityByUsername("bob")).thenReturn(new UserIdentity(2L, "bob", Role.USER));
+        when(groupService.isMember(10L, 2L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/groups.10"), channel));
+        verify(subscriptionRegistry).unsubscribed("s1", "sub-0");
+    }
+
+    @Test
+    void unsubscribe_forgetsSubscription() {
+        Message<byte[]> message = frame(StompCommand.UNSUBSCRIBE, null);
+
+        assertSame(message, interceptor.preSend(message, channel));
+        verify(subscriptionRegistry).unsubscribed("s1", "sub-0");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/topic/**", "/topic/*.10", "/topic/groups.*", "/topic/groups.1?", "/topic/#",
+            "/topic/groups.#", "/topic/groups.{id}", "/user/queue/*"})
+    void subscribe_pattern_rejected(String destination) {
+        assertThrows(IllegalArgumentException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, destination), channel));
+        verifyNoInteractions(groupService);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/topic", "/topic/groups", "/topic/groups.", "/topic/groups.10.extra", "/topic/groups.+10",
+            "/topic/groups/10", "/topic/groupsx10", "/topic/other", "/topicgroups.10", "/queue/private-user1"})
+    void subscribe_otherBrokerDestination_rejected(String destination) {
+        assertThrows(IllegalArgumentException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, destination), channel));
+        verifyNoInteractions(groupService);
+    }
+
+    @Test
+    void send_toBrokerDestination_rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> interceptor.preSend(frame(StompCommand.SEND, "/topic/groups.10"), channel));
+        verifyNoInteractions(groupService);
+    }
+
+    @Test
+    void otherFrames_untouched() {
+        Message<byte[]> subscribe = frame(StompCommand.SUBSCRIBE, "/user/queue/private");
+        Message<byte[]> send = frame(StompCommand.SEND, "/app/groups/10");
+
+        assertSame(subscribe, interceptor.preSend(subscribe, channel));
+        assertSame(send, interceptor.preSend(send, channel));
+        verifyNoInteractions(groupService, userService, subscriptionRegistry);
+    }
+}
@@ -0,0 +1,182 @@
+package com.malak.chatapp.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.CreateUserDto;
+import com.malak.chatapp.secuirty.JwtService;
+import com.malak.chatapp.service.GroupService;
+import com.malak.chatapp.service.GroupSubscriptionRegistry;
+import com.malak.chatapp.service.UserService;
+
+/**
+ * Group fan-out end to end over a real WebSocket, on the simple broker with the same
+ * dot-separated destinations and path matcher the RabbitMQ relay needs.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:group-topic;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa", "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "server.address=127.0.0.1", "chat.broker.mode=simple", "chat.search.mode=memory"})
+public class GroupTopicStompTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private GroupSubscriptionRegistry subscriptionRegistry;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private SimpleBrokerMessageHandler brokerMessageHandler;
+
+    @Autowired
+    private SimpUserRegistry simpUserRegistry;
+
+    private WebSocketStompClient stompClient;
+
+    @BeforeEach
+    void setUp() {
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stompClient.stop();
+    }
+
+    @Test
+    void groupPost_fannedOutToMembers_untilRemoved() throws Exception {
+        User alice = user("gt-alice");
+        User bob = user("gt-bob");
+        User carol = user("gt-carol");
+        Long groupId = groupService.createGroup(alice.getId(), "team", List.of(bob.getId(), carol.getId())).id();
+        String topic = GroupService.topic(groupId);
+        assertEquals("/topic/groups." + groupId, topic);
+
+        StompSession aliceSession = connect(alice);
+        BlockingQueue<Map<String, Object>> aliceInbox = subscribe(aliceSession, topic);
+        BlockingQueue<Map<String, Object>> bobInbox = subscribe(connect(bob), topic);
+        BlockingQueue<Map<String, Object>> carolInbox = subscribe(connect(carol), topic);
+        awaitBrokerSubscriptions(topic, 3);
+
+        aliceSession.send("/app/groups/" + groupId, Map.of("content", "hello"));
+
+        for (BlockingQueue<Map<String, Object>> inbox : List.of(aliceInbox, bobInbox, carolInbox)) {
+            Map<String, Object> received = inbox.poll(5, TimeUnit.SECONDS);
+            assertNotNull(received);
+            assertEquals("hello", received.get("content"));
+            assertEquals("gt-alice", received.get("sender"));
+        }
+
+        groupService.removeMember(groupId, alice.getId(), carol.getId());
+        assertEquals(2, subscriptionRegistry.getSubscriptionCount());
+        awaitBrokerSubscriptions(topic, 2);
+        aliceSession.send("/app/groups/" + groupId, Map.of("content", "after"));
+
+        assertEquals("after", bobInbox.poll(5, TimeUnit.SECONDS).get("content"));
+        assertEquals("after", aliceInbox.poll(5, TimeUnit.SECONDS).get("content"));
+        assertNull(carolInbox.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void appDestinations_stillRoutedWithDotMatcher() throws Exception {
+        User dave = user("gt-dave");
+        User erin = user("gt-erin");
+        StompSession daveSession = connect(dave);
+        BlockingQueue<Map<String, Object>> erinInbox = subscribe(connect(erin), "/user/queue/private");
+        String erinSessionId = simpUserRegistry.getUser("gt-erin").getSessions().iterator().next().getId();
+        awaitBrokerSubscriptions("/queue/private-user" + erinSessionId, 1);
+
+        daveSession.send("/app/private", Map.of("sender", "gt-dave", "recipient", "gt-erin", "content", "hi"));
+
+        Map<String, Object> received = erinInbox.poll(5, TimeUnit.SECONDS);
+        assertNotNull(received);
+        assertEquals("hi", received.get("content"));
+        assertEquals("gt-dave", received.get("sender"));
+    }
+
+    private User user(String username) {
+        return userService.createUser(new CreateUserDto(username, "password123"), Role.USER);
+    }
+
+    private StompSession connect(User user) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization",
+                "Bearer " + jwtService.generateAccessToken(user.getId(), user.getUsername(), user.getRole()));
+        return stompClient.connectAsync("ws://127.0.0.1:" + port + "/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {}).get(5, TimeUnit.SECONDS);
+    }
+
+    private BlockingQueue<Map<String, Object>> subscribe(StompSession session, String destination) {
+        BlockingQueue<Map<String, Object>> inbox = new LinkedBlockingQueue<>();
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                inbox.add((Map<String, Object>) payload);
+            }
+        });
+        return inbox;
+    }
+
+    // SUBSCRIBE gets no reply from the simple broker; wait until it holds the subscriptions
+    private void awaitBrokerSubscriptions(String destination, int expected) throws InterruptedException {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        Message<byte[]> probe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (brokerMessageHandler.getSubscriptionRegistry().findSubscriptions(probe).size() != expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, brokerMessageHandler.getSubscriptionRegistry().findSubscriptions(probe).size());
+    }
+}
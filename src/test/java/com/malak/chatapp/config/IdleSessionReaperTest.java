@@ -0,0 +1,74 @@
+package com.malak.chatapp.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class IdleSessionReaperTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IdleSessionReaper reaper = new IdleSessionReaper(meterRegistry);
+    private final WebSocketHandler handler = reaper.decorate(mock(WebSocketHandler.class));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reaper, "idleTimeoutMs", 50L);
+        reaper.init();
+    }
+
+    private WebSocketSession session(String id) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        handler.afterConnectionEstablished(session);
+        return session;
+    }
+
+    @Test
+    void reapIdleSessions_closesOnlySessionsPastTimeout() throws Exception {
+        WebSocketSession idle = session("idle");
+        WebSocketSession active = session("active");
+
+        Thread.sleep(80);
+        // A heart-beat frame from the active client
+        handler.handleMessage(active, new TextMessage("\n"));
+        reaper.reapIdleSessions();
+
+        verify(idle).close(any(CloseStatus.class));
+        verify(active, never()).close(any(CloseStatus.class));
+        assertEquals(1, reaper.getTrackedSessions());
+        assertEquals(1.0, meterRegistry.get("chat.websocket.sessions.closed.idle").counter().count());
+    }
+
+    @Test
+    void afterConnectionClosed_stopsTracking() throws Exception {
+        WebSocketSession session = session("s1");
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        Thread.sleep(80);
+        reaper.reapIdleSessions();
+
+        assertEquals(0, reaper.getTrackedSessions());
+        verify(session, never()).close(any(CloseStatus.class));
+    }
+
+    @Test
+    void reapIdleSessions_disabled_closesNothing() throws Exception {
+        ReflectionTestUtils.setField(reaper, "idleTimeoutMs", 0L);
+        WebSocketSession session = session("s1");
+
+        Thread.sleep(80);
+        reaper.reapIdleSessions();
+
+        verify(session, never()).close(any(CloseStatus.class));
+    }
+}
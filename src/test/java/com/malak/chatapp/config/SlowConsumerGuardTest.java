@@ -0,0 +1,105 @@
+package com.malak.chatapp.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SlowConsumerGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SlowConsumerGuard guard = new SlowConsumerGuard(meterRegistry);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(guard, "slowThresholdMs", 0L);
+        ReflectionTestUtils.setField(guard, "droppableDestinations", List.of("/user/queue/typing", "/user/queue/status"));
+        guard.init();
+    }
+
+    private Message<?> frame(String sessionId, String originalDestination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setSessionId(sessionId);
+        accessor.setDestination("/queue/x-user" + sessionId);
+        accessor.setHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, originalDestination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void preSend_idleSession_keepsEverything() throws Exception {
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn("s1");
+        guard.decorate(mock(WebSocketHandler.class)).afterConnectionEstablished(raw);
+
+        assertNotNull(guard.preSend(frame("s1", "/user/queue/typing"), channel));
+        assertFalse(guard.isSlow("s1"));
+    }
+
+    @Test
+    void preSend_stalledSession_dropsTypingAndStatusButKeepsChat() throws Exception {
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn("s1");
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(raw).sendMessage(any());
+
+        // Capture the wrapped session the STOMP handler would use, and block a write on it
+        WebSocketHandler stompHandler = mock(WebSocketHandler.class);
+        WebSocketSession[] wrapped = new WebSocketSession[1];
+        doAnswer(inv -> wrapped[0] = inv.getArgument(0)).when(stompHandler).afterConnectionEstablished(any());
+        guard.decorate(stompHandler).afterConnectionEstablished(raw);
+        Thread writer = new Thread(() -> {
+            try {
+                wrapped[0].sendMessage(new TextMessage("MESSAGE"));
+            } catch (Exception ignored) {
+            }
+        });
+        writer.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        assertTrue(guard.isSlow("s1"));
+        assertNull(guard.preSend(frame("s1", "/user/queue/typing"), channel));
+        assertNull(guard.preSend(frame("s1", "/user/queue/status"), channel));
+        assertNotNull(guard.preSend(frame("s1", "/user/queue/private"), channel));
+        assertEquals(2.0, meterRegistry.get("chat.websocket.outbound.dropped").counter().count());
+
+        release.countDown();
+        writer.join(5000);
+        assertFalse(guard.isSlow("s1"));
+    }
+
+    @Test
+    void afterConnectionClosed_notReliable_countsForcedClose() throws Exception {
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn("s1");
+        WebSocketHandler decorated = guard.decorate(mock(WebSocketHandler.class));
+        decorated.afterConnectionEstablished(raw);
+
+        decorated.afterConnectionClosed(raw, CloseStatus.SESSION_NOT_RELIABLE);
+        decorated.afterConnectionClosed(raw, CloseStatus.NORMAL);
+
+        assertEquals(1.0, meterRegistry.get("chat.websocket.sessions.closed.slow").counter().count());
+    }
+}
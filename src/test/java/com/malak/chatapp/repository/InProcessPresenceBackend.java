@@ -0,0 +1,117 @@
+package com.malak.chatapp.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process stand-in for the shared presence backend. Several SharedPresenceStore
+ * instances pointed at one of these behave like several nodes sharing Redis.
+ * Every method is synchronized, which gives the same atomicity as the Lua scripts.
+ */
+public class InProcessPresenceBackend implements PresenceBackend {
+
+    private final Map<Long, Map<String, SessionEntry>> sessions = new HashMap<>();
+    private final Map<String, Set<String>> nodeSessions = new HashMap<>();
+    private final Map<String, String> typing = new HashMap<>();
+    private final Map<String, Set<String>> nodeTyping = new HashMap<>();
+    private final Map<String, Long> leases = new HashMap<>();
+    private final Map<Long, Long> lastSeen = new HashMap<>();
+
+    @Override
+    public synchronized int addSession(long userId, String sessionId, String nodeId, long connectedAtMs) {
+        Map<String, SessionEntry> userSessions = sessions.computeIfAbsent(userId, id -> new HashMap<>());
+        userSessions.put(sessionId, new SessionEntry(nodeId, connectedAtMs));
+        nodeSessions.computeIfAbsent(nodeId, id -> new HashSet<>()).add(userId + "|" + sessionId);
+        return userSessions.size();
+    }
+
+    @Override
+    public synchronized int removeSession(long userId, String sessionId) {
+        Map<String, SessionEntry> userSessions = sessions.get(userId);
+        SessionEntry entry = userSessions == null ? null : userSessions.remove(sessionId);
+        if (entry == null) {
+            return -1;
+        }
+        nodeSessions.getOrDefault(entry.nodeId(), new HashSet<>()).remove(userId + "|" + sessionId);
+        if (userSessions.isEmpty()) {
+            sessions.remove(userId);
+        }
+        return userSessions.size();
+    }
+
+    @Override
+    public synchronized Map<String, SessionEntry> getSessions(long userId) {
+        return new HashMap<>(sessions.getOrDefault(userId, Map.of()));
+    }
+
+    @Override
+    public synchronized Set<Long> getOnlineUserIds() {
+        return new HashSet<>(sessions.keySet());
+    }
+
+    @Override
+    public synchronized void setLastSeen(long userId, long lastSeenMs) {
+        lastSeen.put(userId, lastSeenMs);
+    }
+
+    @Override
+    public synchronized Long getLastSeen(long userId) {
+        return lastSeen.get(userId);
+    }
+
+    @Override
+    public synchronized void setTyping(long userId, long recipientId, String nodeId) {
+        String field = userId + ":" + recipientId;
+        typing.put(field, nodeId);
+        nodeTyping.computeIfAbsent(nodeId, id -> new HashSet<>()).add(field);
+    }
+
+    @Override
+    public synchronized void clearTyping(long userId, long recipientId) {
+        String field = userId + ":" + recipientId;
+        String nodeId = typing.remove(field);
+        if (nodeId != null) {
+            nodeTyping.getOrDefault(nodeId, new HashSet<>()).remove(field);
+        }
+    }
+
+    @Override
+    public synchronized boolean isTyping(long userId, long recipientId) {
+        return typing.containsKey(userId + ":" + recipientId);
+    }
+
+    @Override
+    public synchronized void renewLease(String nodeId, long leaseUntilMs) {
+        leases.put(nodeId, leaseUntilMs);
+    }
+
+    @Override
+    public synchronized Map<String, Long> getLeases() {
+        return new HashMap<>(leases);
+    }
+
+    @Override
+    public synchronized List<Long> removeNode(String nodeId) {
+        List<Long> offline = new ArrayList<>();
+        for (String member : nodeSessions.getOrDefault(nodeId, Set.of())) {
+            int sep = member.indexOf('|');
+            long userId = Long.parseLong(member.substring(0, sep));
+            Map<String, SessionEntry> userSessions = sessions.get(userId);
+            if (userSessions != null && userSessions.remove(member.substring(sep + 1)) != null && userSessions.isEmpty()) {
+                sessions.remove(userId);
+                offline.add(userId);
+            }
+        }
+        for (String field : nodeTyping.getOrDefault(nodeId, Set.of())) {
+            typing.remove(field, nodeId);
+        }
+        nodeSessions.remove(nodeId);
+        nodeTyping.remove(nodeId);
+        leases.remove(nodeId);
+        return offline;
+    }
+}
@@ -0,0 +1,136 @@
+package com.malak.chatapp.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.MessageDTO;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Runs the search SQL against a real PostgreSQL (H2 has no tsvector), on the schema Hibernate
+ * generates from the entities plus the content_tsv DDL. Skipped unless CHAT_TEST_POSTGRES_URL
+ * points at a database it may create tables in (CHAT_TEST_POSTGRES_USER / _PASSWORD).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "CHAT_TEST_POSTGRES_URL", matches = ".+")
+@Import(MessageSearchRepository.class)
+public class MessageSearchRepositoryPostgresTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("CHAT_TEST_POSTGRES_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("CHAT_TEST_POSTGRES_USER"));
+        registry.add("spring.datasource.password", () -> System.getenv("CHAT_TEST_POSTGRES_PASSWORD"));
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private MessageSearchRepository searchRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User alice;
+    private User bob;
+    private User carol;
+
+    @BeforeEach
+    void setUp() {
+        assertTrue(searchRepository.createIndex("simple"));
+        alice = user("alice");
+        bob = user("bob");
+        carol = user("carol");
+    }
+
+    @Test
+    void createIndex_onlyRebuildsForAnotherConfiguration() {
+        assertEquals("simple", searchRepository.findContentTsvConfig());
+        assertTrue(searchRepository.indexExists());
+        assertFalse(searchRepository.createIndex("simple"));
+
+        assertTrue(searchRepository.createIndex("english"));
+        assertEquals("english", searchRepository.findContentTsvConfig());
+        assertTrue(searchRepository.indexExists());
+    }
+
+    @Test
+    void search_rankedAndScopedToCallersConversations() {
+        Conversation aliceBob = conversation(alice, bob);
+        Conversation bobCarol = conversation(bob, carol);
+        Message once = message(aliceBob, alice, bob, "the release is tonight");
+        Message twice = message(aliceBob, bob, alice, "release notes for the release");
+        message(aliceBob, alice, bob, "lunch later?");
+        Message others = message(bobCarol, carol, bob, "release party");
+        entityManager.flush();
+
+        List<MessageDTO> aliceHits = searchRepository.search("simple", alice.getId(), "release", 10, 0);
+        assertEquals(List.of(twice.getId(), once.getId()), ids(aliceHits));
+        assertEquals("bob", aliceHits.get(0).sender());
+        assertEquals("alice", aliceHits.get(0).recipient());
+
+        // Both sides of a conversation see it, nobody sees conversations they are not in;
+        // a single occurrence ranks the same in either message, so the newer one comes first
+        assertEquals(List.of(twice.getId(), others.getId(), once.getId()),
+                ids(searchRepository.search("simple", bob.getId(), "release", 10, 0)));
+        assertEquals(List.of(others.getId()), ids(searchRepository.search("simple", carol.getId(), "release", 10, 0)));
+
+        assertEquals(List.of(once.getId()), ids(searchRepository.search("simple", alice.getId(), "release", 1, 1)));
+        assertTrue(searchRepository.search("simple", alice.getId(), "party", 10, 0).isEmpty());
+    }
+
+    @Test
+    void search_equalRank_newestFirst() {
+        Conversation aliceBob = conversation(alice, bob);
+        Message older = message(aliceBob, alice, bob, "standup");
+        Message newer = message(aliceBob, bob, alice, "standup");
+        entityManager.flush();
+
+        assertEquals(List.of(newer.getId(), older.getId()),
+                ids(searchRepository.search("simple", alice.getId(), "standup", 10, 0)));
+    }
+
+    private User user(String username) {
+        User user = User.builder().username(username).password("p").role(Role.USER).build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Conversation conversation(User userA, User userB) {
+        Conversation conversation = Conversation.create(userA, userB);
+        conversation.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(conversation);
+        return conversation;
+    }
+
+    private Message message(Conversation conversation, User sender, User receiver, String content) {
+        Message message = new Message();
+        message.setConversation(conversation);
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setContent(content);
+        entityManager.persist(message);
+        return message;
+    }
+
+    private static List<Long> ids(List<MessageDTO> messages) {
+        return messages.stream().map(MessageDTO::id).toList();
+    }
+}
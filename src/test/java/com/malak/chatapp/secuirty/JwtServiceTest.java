@@ -0,0 +1,85 @@
+package com.malak.chatapp.secuirty;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.Role;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+
+public class JwtServiceTest {
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService("0123456789abcdef0123456789abcdef0123456789", 60_000L);
+    }
+
+    private JwtService newService(String secret, long accessExpiration) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", secret);
+        ReflectionTestUtils.setField(service, "accessTokenExpiration", accessExpiration);
+        ReflectionTestUtils.setField(service, "refreshTokenExpiration", 120_000L);
+        ReflectionTestUtils.setField(service, "verifiedCacheMaxSize", 100L);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void verify_accessToken_returnsAllClaims() {
+        String token = jwtService.generateAccessToken(5L, "bob", Role.USER);
+
+        JwtClaims claims = jwtService.verify(token);
+
+        assertEquals("bob", claims.subject());
+        assertEquals(5L, claims.userId());
+        assertEquals("USER", claims.role());
+        assertTrue(claims.isAccessToken());
+        assertFalse(claims.isRefreshToken());
+    }
+
+    @Test
+    void verify_sameToken_returnsCachedClaims() {
+        String token = jwtService.generateAccessToken(5L, "bob", Role.USER);
+
+        assertSame(jwtService.verify(token), jwtService.verify(token));
+    }
+
+    @Test
+    void verify_refreshToken_hasNoUserId() {
+        JwtClaims claims = jwtService.verify(jwtService.generateRefreshToken("bob", Role.ADMIN));
+
+        assertNull(claims.userId());
+        assertTrue(claims.isRefreshToken());
+    }
+
+    @Test
+    void verify_expiredToken_throwsAndIsNotCached() {
+        JwtService expiring = newService("0123456789abcdef0123456789abcdef0123456789", -1_000L);
+        String token = expiring.generateAccessToken(5L, "bob", Role.USER);
+
+        assertThrows(ExpiredJwtException.class, () -> expiring.verify(token));
+        assertThrows(ExpiredJwtException.class, () -> expiring.verify(token));
+    }
+
+    @Test
+    void verify_foreignSignature_throws() {
+        JwtService other = newService("another-secret-another-secret-another-secret", 60_000L);
+        String token = other.generateAccessToken(5L, "bob", Role.USER);
+
+        assertThrows(JwtException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void isTokenValid_otherUsername_false() {
+        String token = jwtService.generateAccessToken(5L, "bob", Role.USER);
+
+        assertTrue(jwtService.isTokenValid(token, "bob"));
+        assertFalse(jwtService.isTokenValid(token, "alice"));
+    }
+}
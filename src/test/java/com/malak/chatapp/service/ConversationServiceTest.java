@@ -0,0 +1,94 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.repository.ConversationRepository;
+import com.malak.chatapp.repository.MessageRepository;
+import com.malak.chatapp.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class ConversationServiceTest {
+
+    @Mock
+    private ConversationRepository conversationRepository;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private ConversationService conversationService;
+
+    private User low;
+    private User high;
+
+    @BeforeEach
+    void setUp() {
+        low = User.builder().id(1L).build();
+        high = User.builder().id(2L).build();
+    }
+
+    @Test
+    void findConversationId_anyOrder_usesOrderedPair() {
+        when(conversationRepository.findIdByOrderedUsers(1L, 2L)).thenReturn(Optional.of(5L));
+        assertEquals(Optional.of(5L), conversationService.findConversationId(2L, 1L));
+    }
+
+    @Test
+    void getOrCreateConversation_missing_savesOrderedPair() {
+        when(conversationRepository.findByOrderedUsers(1L, 2L)).thenReturn(Optional.empty());
+        when(conversationRepository.saveAndFlush(any(Conversation.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Conversation conversation = conversationService.getOrCreateConversation(high, low);
+
+        assertEquals(low, conversation.getUser1());
+        assertEquals(high, conversation.getUser2());
+    }
+
+    @Test
+    void getOrCreateConversation_concurrentInsert_returnsExisting() {
+        Conversation existing = Conversation.create(low, high);
+        when(conversationRepository.findByOrderedUsers(1L, 2L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(existing));
+        when(conversationRepository.saveAndFlush(any(Conversation.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertSame(existing, conversationService.getOrCreateConversation(low, high));
+    }
+
+    @Test
+    void backfillMissingConversations_bothDirections_createsOneConversation() {
+        Conversation existing = Conversation.create(low, high);
+        when(messageRepository.findUserPairsWithoutConversation())
+                .thenReturn(List.of(new Object[] {2L, 1L}, new Object[] {1L, 2L}));
+        when(userRepository.getReferenceById(1L)).thenReturn(low);
+        when(userRepository.getReferenceById(2L)).thenReturn(high);
+        when(conversationRepository.findByOrderedUsers(1L, 2L)).thenReturn(Optional.of(existing));
+        when(messageRepository.assignConversation(existing, 1L, 2L)).thenReturn(3);
+
+        assertEquals(3, conversationService.backfillMissingConversations());
+
+        ArgumentCaptor<Long> first = ArgumentCaptor.forClass(Long.class);
+        verify(messageRepository, times(1)).assignConversation(any(), first.capture(), any());
+        assertEquals(1L, first.getValue());
+    }
+}
@@ -0,0 +1,124 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.domain.ConversationSummary;
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.ConversationSummaryDto;
+import com.malak.chatapp.dto.InboxPageDto;
+import com.malak.chatapp.repository.ConversationRepository;
+import com.malak.chatapp.repository.ConversationSummaryRepository;
+import com.malak.chatapp.repository.MessageRepository;
+import com.malak.chatapp.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class ConversationSummaryServiceTest {
+
+    @Mock
+    private ConversationSummaryRepository summaryRepository;
+
+    @Mock
+    private ConversationRepository conversationRepository;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private ConversationSummaryService conversationSummaryService;
+
+    private final User alice = User.builder().id(1L).build();
+    private final User bob = User.builder().id(2L).build();
+
+    private Message message(long id, User sender, User receiver, String content) {
+        Conversation conversation = Conversation.create(alice, bob);
+        conversation.setId(7L);
+        Message message = new Message();
+        message.setId(id);
+        message.setConversation(conversation);
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setContent(content);
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+
+    @Test
+    void recordMessages_batchOfOneConversation_singleUpdateWithNewestMessage() {
+        when(summaryRepository.applyMessages(anyLong(), anyLong(), any(), any(), anyCollection()))
+                .thenReturn(2);
+
+        conversationSummaryService.recordMessages(List.of(
+                message(10L, alice, bob, "one"),
+                message(12L, bob, alice, "two"),
+                message(11L, alice, bob, "three")));
+
+        // All three messages in one statement; "two" has the highest id
+        verify(summaryRepository).applyMessages(eq(7L), eq(12L), eq("two"), any(), eq(List.of(10L, 12L, 11L)));
+        verify(summaryRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void recordMessages_firstMessage_createsBothRowsThenApplies() {
+        when(summaryRepository.applyMessages(anyLong(), anyLong(), any(), any(), anyCollection()))
+                .thenReturn(0, 2);
+
+        conversationSummaryService.recordMessages(List.of(message(10L, alice, bob, "x".repeat(150))));
+
+        verify(summaryRepository, times(2)).saveAndFlush(any(ConversationSummary.class));
+        verify(summaryRepository, times(2)).applyMessages(eq(7L), eq(10L), eq("x".repeat(100)), any(),
+                eq(List.of(10L)));
+    }
+
+    @Test
+    void markRead_belowNewestMessage_recountsTail() {
+        when(summaryRepository.clearUnread(7L, 2L, 10L)).thenReturn(0);
+
+        conversationSummaryService.markRead(7L, 2L, 10L);
+
+        verify(summaryRepository).recountUnread(7L, 2L, 10L);
+    }
+
+    @Test
+    void markRead_coversNewestMessage_onlyClears() {
+        when(summaryRepository.clearUnread(7L, 2L, 12L)).thenReturn(1);
+
+        conversationSummaryService.markRead(7L, 2L, 12L);
+
+        verify(summaryRepository, never()).recountUnread(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void getInbox_fetchesOneExtraRowForHasMore() {
+        List<ConversationSummaryDto> rows = List.of(
+                new ConversationSummaryDto(9L, 3L, "carol", 30L, "hey", LocalDateTime.now(), 0),
+                new ConversationSummaryDto(7L, 2L, "bob", 20L, "hi", LocalDateTime.now(), 2),
+                new ConversationSummaryDto(8L, 4L, "dave", 10L, "yo", LocalDateTime.now(), 1));
+        when(summaryRepository.findInboxBefore(1L, Long.MAX_VALUE, PageRequest.of(0, 3))).thenReturn(rows);
+
+        InboxPageDto page = conversationSummaryService.getInbox(1L, null, 2);
+
+        assertEquals(2, page.getConversations().size());
+        assertTrue(page.isHasMore());
+        assertEquals(20L, page.getNextCursor());
+    }
+}
@@ -0,0 +1,205 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.ChatGroup;
+import com.malak.chatapp.domain.GroupMember;
+import com.malak.chatapp.domain.GroupMessage;
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.GroupDto;
+import com.malak.chatapp.dto.GroupMessageDTO;
+import com.malak.chatapp.dto.GroupMessagePageDto;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.exception.ResourceAlreadyExistsException;
+import com.malak.chatapp.exception.ResourceNotFoundException;
+import com.malak.chatapp.exception.UnauthorizedActionException;
+import com.malak.chatapp.repository.ChatGroupRepository;
+import com.malak.chatapp.repository.GroupMemberRepository;
+import com.malak.chatapp.repository.GroupMessageRepository;
+import com.malak.chatapp.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupServiceTest {
+
+    @Mock
+    private ChatGroupRepository groupRepository;
+
+    @Mock
+    private GroupMemberRepository memberRepository;
+
+    @Mock
+    private GroupMessageRepository groupMessageRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private GroupSubscriptionRegistry subscriptionRegistry;
+
+    @InjectMocks
+    private GroupService groupService;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(groupService, "maxMembers", 3);
+        alice = User.builder().id(1L).username("alice").build();
+        bob = User.builder().id(2L).username("bob").build();
+    }
+
+    // ===========================
+    // Create group tests
+    // ===========================
+    @Test
+    void createGroup_addsOwnerAndMembersOnce() {
+        when(userRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(alice, bob));
+        when(userRepository.getReferenceById(1L)).thenReturn(alice);
+        when(groupRepository.save(any(ChatGroup.class))).thenAnswer(inv -> {
+            ChatGroup group = inv.getArgument(0);
+            group.setId(10L);
+            return group;
+        });
+
+        GroupDto group = groupService.createGroup(1L, " Weekend ", List.of(2L, 1L, 2L));
+
+        assertEquals(10L, group.id());
+        assertEquals("Weekend", group.name());
+        assertEquals(1L, group.ownerId());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<GroupMember>> members = ArgumentCaptor.forClass(List.class);
+        verify(memberRepository).saveAll(members.capture());
+        assertEquals(2, members.getValue().size());
+    }
+
+    @Test
+    void createGroup_unknownMember_throws() {
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(alice));
+
+        assertThrows(ResourceNotFoundException.class, () -> groupService.createGroup(1L, "g", List.of(99L)));
+        verify(groupRepository, never()).save(any());
+    }
+
+    @Test
+    void createGroup_tooManyMembers_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> groupService.createGroup(1L, "g", List.of(2L, 3L, 4L)));
+        verifyNoInteractions(userRepository, groupRepository);
+    }
+
+    // ===========================
+    // Membership tests
+    // ===========================
+    @Test
+    void addMember_notOwner_throws() {
+        when(groupRepository.findOwnerId(10L)).thenReturn(Optional.of(1L));
+
+        assertThrows(UnauthorizedActionException.class, () -> groupService.addMember(10L, 2L, 3L));
+        verify(memberRepository, never()).save(any());
+    }
+
+    @Test
+    void addMember_alreadyMember_throws() {
+        when(groupRepository.findOwnerId(10L)).thenReturn(Optional.of(1L));
+        when(memberRepository.existsByGroupIdAndUserId(10L, 2L)).thenReturn(true);
+
+        assertThrows(ResourceAlreadyExistsException.class, () -> groupService.addMember(10L, 1L, 2L));
+    }
+
+    @Test
+    void removeMember_memberLeaves() {
+        when(groupRepository.findOwnerId(10L)).thenReturn(Optional.of(1L));
+        when(memberRepository.deleteMember(10L, 2L)).thenReturn(1);
+
+        groupService.removeMember(10L, 2L, 2L);
+
+        verify(memberRepository).deleteMember(10L, 2L);
+        verify(subscriptionRegistry).revoke(10L, 2L);
+    }
+
+    @Test
+    void removeMember_ownerCannotLeave() {
+        when(groupRepository.findOwnerId(10L)).thenReturn(Optional.of(1L));
+
+        assertThrows(IllegalStateException.class, () -> groupService.removeMember(10L, 1L, 1L));
+        verify(memberRepository, never()).deleteMember(any(), any());
+        verifyNoInteractions(subscriptionRegistry);
+    }
+
+    @Test
+    void removeMember_otherMemberByNonOwner_throws() {
+        when(groupRepository.findOwnerId(10L)).thenReturn(Optional.of(1L));
+
+        assertThrows(UnauthorizedActionException.class, () -> groupService.removeMember(10L, 2L, 3L));
+    }
+
+    // ===========================
+    // Message tests
+    // ===========================
+    @Test
+    void sendGroupMessage_member_storesOnce() {
+        UserIdentity bobIdentity = new UserIdentity(2L, "bob", Role.USER);
+        when(memberRepository.existsByGroupIdAndUserId(10L, 2L)).thenReturn(true);
+        when(userService.getReference(bobIdentity)).thenReturn(bob);
+        when(groupMessageRepository.save(any(GroupMessage.class))).thenAnswer(inv -> {
+            GroupMessage message = inv.getArgument(0);
+            message.setId(100L);
+            message.setCreatedAt(LocalDateTime.now());
+            return message;
+        });
+
+        GroupMessageDTO sent = groupService.sendGroupMessage(10L, bobIdentity, "hello");
+
+        assertEquals(100L, sent.id());
+        assertEquals(10L, sent.groupId());
+        assertEquals("bob", sent.sender());
+        verify(groupMessageRepository, times(1)).save(any());
+    }
+
+    @Test
+    void sendGroupMessage_nonMember_throws() {
+        when(memberRepository.existsByGroupIdAndUserId(10L, 3L)).thenReturn(false);
+
+        assertThrows(UnauthorizedActionException.class,
+                () -> groupService.sendGroupMessage(10L, new UserIdentity(3L, "carol", Role.USER), "hi"));
+        verifyNoInteractions(groupMessageRepository);
+    }
+
+    @Test
+    void getGroupMessages_returnsAscendingPage() {
+        when(memberRepository.existsByGroupIdAndUserId(10L, 1L)).thenReturn(true);
+        when(groupMessageRepository.findGroupBefore(10L, Long.MAX_VALUE, PageRequest.of(0, 3))).thenReturn(List.of(
+                new GroupMessageDTO(30L, 10L, "bob", "c", null),
+                new GroupMessageDTO(20L, 10L, "alice", "b", null),
+                new GroupMessageDTO(10L, 10L, "bob", "a", null)));
+
+        GroupMessagePageDto page = groupService.getGroupMessages(10L, 1L, null, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(20L, page.getNextCursor());
+        assertEquals(List.of(20L, 30L), page.getMessages().stream().map(GroupMessageDTO::id).toList());
+    }
+}
@@ -0,0 +1,108 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.repository.GroupMemberRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupSubscriptionRegistryTest {
+
+    @Mock
+    private GroupMemberRepository memberRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private MessageChannel brokerChannel;
+
+    @InjectMocks
+    private GroupSubscriptionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(registry, "recheckMs", 60_000L);
+        registry.setMessagingTemplate(messagingTemplate);
+    }
+
+    @Test
+    void revoke_unsubscribesOnlyThatGroup() {
+        when(messagingTemplate.getMessageChannel()).thenReturn(brokerChannel);
+        registry.subscribed("s1", "sub-0", 10L, 2L);
+        registry.subscribed("s1", "sub-1", 11L, 2L);
+        registry.subscribed("s2", "sub-0", 10L, 2L);
+        registry.subscribed("s3", "sub-0", 10L, 3L);
+
+        registry.revoke(10L, 2L);
+
+        ArgumentCaptor<Message<?>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(brokerChannel, times(2)).send(sent.capture());
+        for (Message<?> message : sent.getAllValues()) {
+            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            assertEquals(StompCommand.UNSUBSCRIBE, accessor.getCommand());
+            assertEquals("sub-0", accessor.getSubscriptionId());
+        }
+        assertFalse(registry.allowDelivery("s1", "sub-0"));
+        assertFalse(registry.allowDelivery("s2", "sub-0"));
+        assertTrue(registry.allowDelivery("s1", "sub-1"));
+        assertTrue(registry.allowDelivery("s3", "sub-0"));
+    }
+
+    @Test
+    void allowDelivery_unknownSubscription_denied() {
+        assertFalse(registry.allowDelivery("s1", "sub-0"));
+        verifyNoInteractions(memberRepository);
+    }
+
+    @Test
+    void allowDelivery_withinRecheckInterval_skipsDatabase() {
+        registry.subscribed("s1", "sub-0", 10L, 2L);
+
+        assertTrue(registry.allowDelivery("s1", "sub-0"));
+        verifyNoInteractions(memberRepository, messagingTemplate);
+    }
+
+    @Test
+    void allowDelivery_removedElsewhere_dropsSubscription() {
+        ReflectionTestUtils.setField(registry, "recheckMs", 0L);
+        when(messagingTemplate.getMessageChannel()).thenReturn(brokerChannel);
+        when(memberRepository.existsByGroupIdAndUserId(10L, 2L)).thenReturn(false);
+        registry.subscribed("s1", "sub-0", 10L, 2L);
+
+        assertFalse(registry.allowDelivery("s1", "sub-0"));
+        assertFalse(registry.allowDelivery("s1", "sub-0"));
+        verify(memberRepository, times(1)).existsByGroupIdAndUserId(10L, 2L);
+        verify(brokerChannel).send(any());
+    }
+
+    @Test
+    void unsubscribeAndSessionClose_forgetSubscriptions() {
+        when(messagingTemplate.getMessageChannel()).thenReturn(brokerChannel);
+        registry.subscribed("s1", "sub-0", 10L, 2L);
+        registry.subscribed("s1", "sub-1", 11L, 2L);
+        registry.subscribed("s2", "sub-0", 10L, 2L);
+
+        registry.unsubscribed("s1", "sub-0");
+        registry.sessionClosed("s2");
+
+        assertEquals(1, registry.getSubscriptionCount());
+        registry.revoke(11L, 2L);
+        assertEquals(0, registry.getSubscriptionCount());
+    }
+}
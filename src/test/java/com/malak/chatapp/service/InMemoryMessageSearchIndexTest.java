@@ -0,0 +1,107 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.MessageDTO;
+import com.malak.chatapp.dto.MessageSearchPageDto;
+import com.malak.chatapp.repository.MessageRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryMessageSearchIndexTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @InjectMocks
+    private InMemoryMessageSearchIndex searchIndex;
+
+    private final User alice = User.builder().id(1L).build();
+    private final User bob = User.builder().id(2L).build();
+    private final User carol = User.builder().id(3L).build();
+
+    private Message message(long id, User sender, User receiver, String content) {
+        Message message = new Message();
+        message.setId(id);
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setContent(content);
+        return message;
+    }
+
+    @BeforeEach
+    void setUp() {
+        searchIndex.index(List.of(
+                message(1L, alice, bob, "Dinner on Friday?"),
+                message(2L, bob, alice, "friday works, dinner at eight, dinner is on me"),
+                message(3L, carol, bob, "Friday dinner with carol"),
+                message(4L, alice, carol, "Lunch tomorrow")));
+        // The page is loaded by id; echo back one DTO per requested id
+        lenient().when(messageRepository.findDtosByIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(id -> new MessageDTO(id, "s", "r", "c", null)).toList();
+        });
+    }
+
+    private List<Long> ids(MessageSearchPageDto page) {
+        return page.getMessages().stream().map(MessageDTO::id).toList();
+    }
+
+    @Test
+    void tokenize_lowercasesAndSplitsOnNonWordCharacters() {
+        assertEquals(List.of("dinner", "on", "friday"), InMemoryMessageSearchIndex.tokenize("Dinner on Friday?"));
+        assertEquals(List.of("café", "2"), InMemoryMessageSearchIndex.tokenize("  Café--2 "));
+    }
+
+    @Test
+    void search_onlyMatchesCallersConversations() {
+        // "dinner" twice in message 2 outweighs its length
+        assertEquals(List.of(2L, 1L), ids(searchIndex.search(1L, "dinner", 0, 10)));
+        assertEquals(List.of(3L), ids(searchIndex.search(3L, "dinner", 0, 10)));
+    }
+
+    @Test
+    void search_requiresEveryTermAndNormalisesByLength() {
+        // Message 2 repeats "dinner" but is three times longer; message 3 is not alice's
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search(1L, "FRIDAY dinner", 0, 10)));
+        assertTrue(searchIndex.search(1L, "dinner lunch", 0, 10).getMessages().isEmpty());
+        assertTrue(searchIndex.search(1L, "breakfast", 0, 10).getMessages().isEmpty());
+    }
+
+    @Test
+    void search_paginates() {
+        MessageSearchPageDto first = searchIndex.search(2L, "friday", 0, 2);
+        MessageSearchPageDto second = searchIndex.search(2L, "friday", 1, 2);
+
+        assertEquals(2, first.getMessages().size());
+        assertTrue(first.isHasMore());
+        assertEquals(1, second.getMessages().size());
+        assertFalse(second.isHasMore());
+    }
+
+    @Test
+    void search_blankQuery_doesNotTouchDatabase() {
+        assertTrue(searchIndex.search(1L, " ?! ", 0, 10).getMessages().isEmpty());
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void index_isIdempotent() {
+        searchIndex.index(List.of(message(1L, alice, bob, "Dinner on Friday?")));
+
+        assertEquals(List.of(2L, 1L), ids(searchIndex.search(1L, "dinner", 0, 10)));
+    }
+}
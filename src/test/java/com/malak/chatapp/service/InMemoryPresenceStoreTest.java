@@ -0,0 +1,85 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class InMemoryPresenceStoreTest {
+
+    private final InMemoryPresenceStore presenceStore = new InMemoryPresenceStore();
+
+    @Test
+    void addSession_onlyFirstSessionReportsOnline() {
+        assertTrue(presenceStore.addSession(1L, "phone"));
+        assertFalse(presenceStore.addSession(1L, "browser"));
+
+        assertTrue(presenceStore.isOnline(1L));
+        assertEquals(2, presenceStore.getSessionCount(1L));
+        assertEquals(2, presenceStore.getSessionConnectTimes(1L).size());
+    }
+
+    @Test
+    void removeSession_onlyLastSessionReportsOffline() {
+        presenceStore.addSession(1L, "phone");
+        presenceStore.addSession(1L, "browser");
+
+        assertFalse(presenceStore.removeSession(1L, "phone"));
+        assertTrue(presenceStore.isOnline(1L));
+
+        assertTrue(presenceStore.removeSession(1L, "browser"));
+        assertFalse(presenceStore.isOnline(1L));
+        assertEquals(0, presenceStore.getSessionCount(1L));
+        assertTrue(presenceStore.getOnlineUserIds().isEmpty());
+    }
+
+    @Test
+    void removeSession_unknownOrDuplicate_isIgnored() {
+        presenceStore.addSession(1L, "phone");
+
+        assertFalse(presenceStore.removeSession(1L, "unknown"));
+        assertFalse(presenceStore.removeSession(2L, "phone"));
+        assertTrue(presenceStore.removeSession(1L, "phone"));
+        assertFalse(presenceStore.removeSession(1L, "phone"));
+    }
+
+    @Test
+    void concurrentConnectDisconnect_reportsExactlyOneTransitionEachWay() throws Exception {
+        int sessions = 200;
+        AtomicInteger onlineTransitions = new AtomicInteger();
+        AtomicInteger offlineTransitions = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch connected = new CountDownLatch(sessions);
+
+        for (int i = 0; i < sessions; i++) {
+            String sessionId = "s" + i;
+            pool.execute(() -> {
+                if (presenceStore.addSession(1L, sessionId)) {
+                    onlineTransitions.incrementAndGet();
+                }
+                connected.countDown();
+            });
+        }
+        assertTrue(connected.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < sessions; i++) {
+            String sessionId = "s" + i;
+            pool.execute(() -> {
+                if (presenceStore.removeSession(1L, sessionId)) {
+                    offlineTransitions.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, onlineTransitions.get());
+        assertEquals(1, offlineTransitions.get());
+        assertFalse(presenceStore.isOnline(1L));
+    }
+}
@@ -0,0 +1,226 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.CursorDirection;
+import com.malak.chatapp.dto.MessageBatchItemResult;
+import com.malak.chatapp.dto.MessageDTO;
+import com.malak.chatapp.dto.MessagePageDto;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.exception.ResourceNotFoundException;
+import com.malak.chatapp.repository.MessageJdbcRepository;
+import com.malak.chatapp.repository.MessageRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class MessageServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MessageJdbcRepository messageJdbcRepository;
+
+    @Mock
+    private ConversationService conversationService;
+
+    @Mock
+    private MessageWriteBehindQueue writeBehindQueue;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ConversationSummaryService conversationSummaryService;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    @InjectMocks
+    private MessageService messageService;
+
+    private User alice;
+    private User bob;
+    private UserIdentity aliceIdentity;
+    private UserIdentity bobIdentity;
+
+    @BeforeEach
+    void setUp() {
+        alice = User.builder().id(1L).username("alice").build();
+        bob = User.builder().id(2L).username("bob").build();
+        aliceIdentity = new UserIdentity(1L, "alice", Role.USER);
+        bobIdentity = new UserIdentity(2L, "bob", Role.USER);
+    }
+
+    private void stubReferences() {
+        when(userService.getReference(aliceIdentity)).thenReturn(alice);
+        when(userService.getReference(bobIdentity)).thenReturn(bob);
+    }
+
+    private MessageDTO message(long id) {
+        return new MessageDTO(id, "alice", "bob", "m" + id, null);
+    }
+
+    // ===========================
+    // Conversation page tests
+    // ===========================
+    @Test
+    void getConversationPage_noCursor_startsFromNewestAndReturnsAscending() {
+        when(conversationService.findConversationId(1L, 2L)).thenReturn(Optional.of(7L));
+        when(messageRepository.findConversationBefore(7L, Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(message(10), message(9), message(8)));
+
+        MessagePageDto page = messageService.getConversationPage(alice, bob, null, CursorDirection.BEFORE, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals(9L, page.getNextCursor());
+        assertEquals(List.of(9L, 10L), page.getMessages().stream().map(m -> m.id()).toList());
+    }
+
+    @Test
+    void getConversationPage_afterCursor_lastPageHasNoMore() {
+        when(conversationService.findConversationId(1L, 2L)).thenReturn(Optional.of(7L));
+        when(messageRepository.findConversationAfter(eq(7L), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(message(6), message(7)));
+
+        MessagePageDto page = messageService.getConversationPage(alice, bob, 5L, CursorDirection.AFTER, 10);
+
+        assertFalse(page.isHasMore());
+        assertEquals(7L, page.getNextCursor());
+        assertEquals(List.of(6L, 7L), page.getMessages().stream().map(m -> m.id()).toList());
+        assertEquals("alice", page.getMessages().get(0).sender());
+    }
+
+    @Test
+    void getConversationPage_empty_returnsNullCursor() {
+        when(conversationService.findConversationId(1L, 2L)).thenReturn(Optional.of(7L));
+        when(messageRepository.findConversationBefore(eq(7L), eq(3L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        MessagePageDto page = messageService.getConversationPage(alice, bob, 3L, CursorDirection.BEFORE, 10);
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertTrue(page.getMessages().isEmpty());
+    }
+
+    @Test
+    void getConversationPage_noConversation_returnsEmptyWithoutQueryingMessages() {
+        when(conversationService.findConversationId(1L, 2L)).thenReturn(Optional.empty());
+
+        MessagePageDto page = messageService.getConversationPage(alice, bob, null, CursorDirection.BEFORE, 10);
+
+        assertTrue(page.getMessages().isEmpty());
+        verifyNoInteractions(messageRepository);
+    }
+
+    // ===========================
+    // Send message tests
+    // ===========================
+    @Test
+    void sendMessage_attachesCanonicalConversation() {
+        stubReferences();
+        Conversation conversation = Conversation.create(bob, alice);
+        when(conversationService.getOrCreateConversation(alice, bob)).thenReturn(conversation);
+        when(messageRepository.save(any(Message.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Message saved = messageService.sendMessage(aliceIdentity, bobIdentity, "hi");
+
+        assertSame(conversation, saved.getConversation());
+        assertEquals(alice, conversation.getUser1());
+        verify(conversationSummaryService).recordMessages(List.of(saved));
+        verify(messageSearchIndex).index(List.of(saved));
+    }
+
+    @Test
+    void sendMessage_writeBehind_assignsIdAndQueuesWithoutSaving() {
+        stubReferences();
+        when(conversationService.getOrCreateConversation(alice, bob)).thenReturn(Conversation.create(alice, bob));
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+
+        Message first = messageService.sendMessage(aliceIdentity, bobIdentity, "one");
+        Message second = messageService.sendMessage(aliceIdentity, bobIdentity, "two");
+
+        assertNotNull(first.getCreatedAt());
+        assertTrue(second.getId() > first.getId());
+        verify(writeBehindQueue).enqueue(first);
+        verify(messageRepository, never()).save(any());
+        verifyNoInteractions(conversationSummaryService);
+    }
+
+    // ===========================
+    // Batch send tests
+    // ===========================
+    private MessageDTO draft(String recipient, String content) {
+        return new MessageDTO(null, null, recipient, content, null);
+    }
+
+    @Test
+    void sendMessages_resolvesEachRecipientOnceAndWritesOneBatch() {
+        ReflectionTestUtils.setField(messageService, "maxBatchSize", 10);
+        stubReferences();
+        when(userService.getIdentityByUsername("bob")).thenReturn(bobIdentity);
+        when(userService.getIdentityByUsername("ghost")).thenThrow(new ResourceNotFoundException("no user with this username"));
+        when(conversationService.getOrCreateConversation(alice, bob)).thenReturn(Conversation.create(alice, bob));
+
+        List<MessageBatchItemResult> results = messageService.sendMessages(aliceIdentity, List.of(
+                draft("bob", "one"), draft("ghost", "boo"), draft("bob", " "), draft("bob", "two")));
+
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(MessageBatchItemResult::index).toList());
+        assertTrue(results.get(0).isSent());
+        assertEquals("no user with this username", results.get(1).error());
+        assertFalse(results.get(2).isSent());
+        assertTrue(results.get(3).id() > results.get(0).id());
+
+        verify(userService, times(1)).getIdentityByUsername("bob");
+        verify(conversationService, times(1)).getOrCreateConversation(alice, bob);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Message>> batch = ArgumentCaptor.forClass(List.class);
+        verify(messageJdbcRepository).batchInsert(batch.capture());
+        assertEquals(List.of("one", "two"), batch.getValue().stream().map(Message::getContent).toList());
+        verify(conversationSummaryService).recordMessages(batch.getValue());
+    }
+
+    @Test
+    void sendMessages_writeBehind_queuesInsteadOfWriting() {
+        ReflectionTestUtils.setField(messageService, "maxBatchSize", 10);
+        stubReferences();
+        when(userService.getIdentityByUsername("bob")).thenReturn(bobIdentity);
+        when(conversationService.getOrCreateConversation(alice, bob)).thenReturn(Conversation.create(alice, bob));
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+
+        messageService.sendMessages(aliceIdentity, List.of(draft("bob", "one"), draft("bob", "two")));
+
+        verify(writeBehindQueue, times(2)).enqueue(any(Message.class));
+        verifyNoInteractions(messageJdbcRepository);
+    }
+
+    @Test
+    void sendMessages_overMaxSize_rejectsWholeBatch() {
+        ReflectionTestUtils.setField(messageService, "maxBatchSize", 1);
+
+        assertThrows(IllegalArgumentException.class, () -> messageService.sendMessages(aliceIdentity,
+                List.of(draft("bob", "one"), draft("bob", "two"))));
+        verifyNoInteractions(messageJdbcRepository, writeBehindQueue);
+    }
+}
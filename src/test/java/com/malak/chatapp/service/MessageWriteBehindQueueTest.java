@@ -0,0 +1,307 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.domain.Message;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.repository.MessageJdbcRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class MessageWriteBehindQueueTest {
+
+    @Mock
+    private MessageJdbcRepository messageJdbcRepository;
+
+    @Mock
+    private ConversationSummaryService conversationSummaryService;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    @InjectMocks
+    private MessageWriteBehindQueue writeBehindQueue;
+
+    private final List<Long> written = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(writeBehindQueue, "enabled", true);
+        ReflectionTestUtils.setField(writeBehindQueue, "capacity", 2);
+        ReflectionTestUtils.setField(writeBehindQueue, "batchSize", 10);
+        ReflectionTestUtils.setField(writeBehindQueue, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(writeBehindQueue, "offerTimeoutMs", 10L);
+        ReflectionTestUtils.setField(writeBehindQueue, "retryBackoffMs", 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehindQueue.shutdown();
+    }
+
+    private Message message(long id) {
+        Message message = new Message();
+        message.setId(id);
+        message.setSender(User.builder().id(1L).build());
+        message.setReceiver(User.builder().id(2L).build());
+        message.setContent("message " + id);
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+
+    private Message message(long id, long conversationId, long senderId) {
+        Message message = message(id);
+        Conversation conversation = new Conversation();
+        conversation.setId(conversationId);
+        message.setConversation(conversation);
+        message.setSender(User.builder().id(senderId).build());
+        return message;
+    }
+
+    private Message message(long id, long receiverId) {
+        Message message = message(id);
+        message.setReceiver(User.builder().id(receiverId).build());
+        return message;
+    }
+
+    private void recordWrites() {
+        lenient().doAnswer(inv -> {
+            List<Message> batch = inv.getArgument(0);
+            batch.forEach(m -> written.add(m.getId()));
+            return null;
+        }).when(messageJdbcRepository).batchInsert(anyList());
+    }
+
+    @Test
+    void enqueue_disabled_writesSynchronously() {
+        ReflectionTestUtils.setField(writeBehindQueue, "enabled", false);
+        recordWrites();
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(message(1));
+
+        assertFalse(writeBehindQueue.isEnabled());
+        assertEquals(List.of(1L), written);
+    }
+
+    @Test
+    void shutdown_flushesEverythingQueued() {
+        recordWrites();
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(message(1));
+        writeBehindQueue.enqueue(message(2));
+        writeBehindQueue.shutdown();
+
+        assertEquals(List.of(1L, 2L), written);
+        assertEquals(0, writeBehindQueue.getQueueSize());
+    }
+
+    @Test
+    void enqueue_queueFull_fallsBackToCallerWrite() throws Exception {
+        // Block the writer on its first batch so the queue fills up
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        doAnswer(inv -> {
+            List<Message> batch = inv.getArgument(0);
+            if (Thread.currentThread().getName().equals("message-write-behind")) {
+                writerBusy.countDown();
+                release.await();
+            }
+            batch.forEach(m -> written.add(m.getId()));
+            return null;
+        }).when(messageJdbcRepository).batchInsert(anyList());
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(message(1));
+        writerBusy.await();
+        writeBehindQueue.enqueue(message(2));
+        writeBehindQueue.enqueue(message(3));
+        writeBehindQueue.enqueue(message(4)); // no room left -> written by this thread
+
+        assertEquals(List.of(4L), written);
+        release.countDown();
+        writeBehindQueue.shutdown();
+        assertTrue(written.containsAll(List.of(1L, 2L, 3L, 4L)));
+    }
+
+    @Test
+    void flush_badRow_onlyThatRowIsHeldBack() {
+        // Any batch containing message 3 fails, as a constraint violation would
+        doAnswer(inv -> {
+            List<Message> batch = inv.getArgument(0);
+            if (batch.stream().anyMatch(m -> m.getId() == 3L)) {
+                throw new IllegalStateException("bad row");
+            }
+            batch.forEach(m -> written.add(m.getId()));
+            return null;
+        }).when(messageJdbcRepository).batchInsert(anyList());
+        ReflectionTestUtils.setField(writeBehindQueue, "capacity", 10);
+        writeBehindQueue.start();
+        writeBehindQueue.shutdown(); // Stop the flusher, the batch below is flushed on this thread
+        
+        ReflectionTestUtils.invokeMethod(writeBehindQueue, "flush",
+                List.of(message(1), message(2), message(3), message(4), message(5)));
+
+        assertEquals(List.of(1L, 2L, 4L, 5L), written.stream().sorted().toList());
+        assertEquals(1, writeBehindQueue.getDeadLetterCount());
+    }
+
+    @Test
+    void deadLetters_retriedUntilWritten() {
+        List<Boolean> databaseUp = Collections.synchronizedList(new ArrayList<>(List.of(false)));
+        doAnswer(inv -> {
+            if (!databaseUp.get(0)) {
+                throw new IllegalStateException("connection refused");
+            }
+            List<Message> batch = inv.getArgument(0);
+            batch.forEach(m -> written.add(m.getId()));
+            return null;
+        }).when(messageJdbcRepository).batchInsert(anyList());
+        writeBehindQueue.start();
+        writeBehindQueue.shutdown();
+
+        ReflectionTestUtils.invokeMethod(writeBehindQueue, "flush", List.of(message(1), message(2)));
+        assertEquals(2, writeBehindQueue.getDeadLetterCount());
+
+        databaseUp.set(0, true);
+        ReflectionTestUtils.invokeMethod(writeBehindQueue, "retryDeadLetters", true);
+
+        assertEquals(List.of(1L, 2L), written);
+        assertEquals(0, writeBehindQueue.getDeadLetterCount());
+        verify(conversationSummaryService, times(2)).recordMessages(anyList());
+    }
+
+    @Test
+    void enqueue_afterShutdown_writesSynchronously() {
+        recordWrites();
+        writeBehindQueue.start();
+        writeBehindQueue.shutdown();
+
+        writeBehindQueue.enqueue(message(9));
+
+        assertEquals(List.of(9L), written);
+        assertEquals(0, writeBehindQueue.getQueueSize());
+    }
+
+    @Test
+    void pendingIds_coverQueuedMessagesUntilWritten() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await();
+            List<Message> batch = inv.getArgument(0);
+            batch.forEach(m -> written.add(m.getId()));
+            return null;
+        }).when(messageJdbcRepository).batchInsert(anyList());
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(message(5, 2L));
+        writeBehindQueue.enqueue(message(6, 2L));
+
+        assertEquals(Optional.of(5L), writeBehindQueue.oldestPendingIdFor(2L));
+        assertEquals(Optional.empty(), writeBehindQueue.oldestPendingIdFor(3L));
+        assertFalse(writeBehindQueue.awaitWritten(2L, 6L, 20));
+
+        release.countDown();
+        assertTrue(writeBehindQueue.awaitWritten(2L, 6L, 1000));
+        assertEquals(Optional.empty(), writeBehindQueue.oldestPendingIdFor(2L));
+    }
+
+    @Test
+    void flush_summaryOrIndexFailure_nextBatchStillFlushes() {
+        recordWrites();
+        doThrow(new IllegalStateException("summary table unavailable"))
+                .doNothing()
+                .when(conversationSummaryService).recordMessages(anyList());
+        doThrow(new IllegalStateException("index broken"))
+                .doNothing()
+                .when(messageSearchIndex).index(anyList());
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(message(1, 2L));
+        assertTrue(writeBehindQueue.awaitWritten(2L, 1L, 1000));
+        writeBehindQueue.enqueue(message(2, 2L));
+
+        assertTrue(writeBehindQueue.awaitWritten(2L, 2L, 1000));
+        assertEquals(List.of(1L, 2L), written);
+        verify(conversationSummaryService, timeout(1000).times(2)).recordMessages(anyList());
+    }
+
+    @Test
+    void latestPendingId_perConversationAndSender() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await();
+            return null;
+        }).when(messageJdbcRepository).batchInsert(anyList());
+        ReflectionTestUtils.setField(writeBehindQueue, "capacity", 10);
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(message(5, 7L, 1L));
+        writeBehindQueue.enqueue(message(6, 7L, 3L));
+        writeBehindQueue.enqueue(message(8, 7L, 1L));
+
+        assertEquals(Optional.of(8L), writeBehindQueue.latestPendingId(7L, 1L));
+        assertEquals(Optional.of(6L), writeBehindQueue.latestPendingId(7L, 3L));
+        assertEquals(Optional.empty(), writeBehindQueue.latestPendingId(9L, 1L));
+
+        release.countDown();
+        assertTrue(writeBehindQueue.awaitWritten(2L, 8L, 1000));
+        assertEquals(Optional.empty(), writeBehindQueue.latestPendingId(7L, 1L));
+    }
+
+    @Test
+    void shutdown_unwrittenMessages_savedToFileAndRestoredOnStart(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("unwritten.jsonl");
+        ReflectionTestUtils.setField(writeBehindQueue, "deadLetterFile", file.toString());
+        List<Boolean> databaseUp = Collections.synchronizedList(new ArrayList<>(List.of(false)));
+        doAnswer(inv -> {
+            if (!databaseUp.get(0)) {
+                throw new IllegalStateException("connection refused");
+            }
+            List<Message> batch = inv.getArgument(0);
+            batch.forEach(m -> written.add(m.getId()));
+            return null;
+        }).when(messageJdbcRepository).batchInsert(anyList());
+        writeBehindQueue.start();
+
+        writeBehindQueue.enqueue(message(1, 7L, 1L));
+        writeBehindQueue.enqueue(message(2, 7L, 1L));
+        writeBehindQueue.shutdown();
+
+        assertEquals(2, Files.readAllLines(file).size());
+        assertTrue(written.isEmpty());
+
+        // Next run (write-behind off): message 1 made it in after all, message 2 is written from the file
+        databaseUp.set(0, true);
+        when(messageJdbcRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+        MessageWriteBehindQueue restarted = new MessageWriteBehindQueue(
+                messageJdbcRepository, conversationSummaryService, messageSearchIndex);
+        ReflectionTestUtils.setField(restarted, "deadLetterFile", file.toString());
+        restarted.start();
+
+        assertEquals(List.of(2L), written);
+        assertFalse(Files.exists(file)); // Write-behind is off in this run, so nothing is left to keep
+    }
+}
@@ -0,0 +1,161 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.DeliveryCursor;
+import com.malak.chatapp.dto.MessageDTO;
+import com.malak.chatapp.dto.MessageReplayDto;
+import com.malak.chatapp.repository.DeliveryCursorRepository;
+import com.malak.chatapp.repository.MessageRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class OfflineReplayServiceTest {
+
+    @Mock
+    private DeliveryCursorRepository deliveryCursorRepository;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private MessageWriteBehindQueue writeBehindQueue;
+
+    @InjectMocks
+    private OfflineReplayService offlineReplayService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(offlineReplayService, "enabled", true);
+        ReflectionTestUtils.setField(offlineReplayService, "batchSize", 2);
+        ReflectionTestUtils.setField(offlineReplayService, "maxMessages", 3);
+        ReflectionTestUtils.setField(offlineReplayService, "threads", 1);
+        ReflectionTestUtils.setField(offlineReplayService, "queueCapacity", 10);
+    }
+
+    private List<MessageDTO> messages(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> new MessageDTO(id, "alice", "bob", "m" + id, null))
+                .toList();
+    }
+
+    @Test
+    void replay_noCursor_sendsNothing() {
+        when(deliveryCursorRepository.findLastDeliveredId(2L)).thenReturn(Optional.empty());
+
+        assertEquals(0, offlineReplayService.replay(2L, "bob", "s1"));
+
+        verifyNoInteractions(messageRepository, messagingTemplate);
+    }
+
+    @Test
+    void replay_sendsBatchesToSessionAndStopsAtLimit() {
+        when(deliveryCursorRepository.findLastDeliveredId(2L)).thenReturn(Optional.of(10L));
+        when(messageRepository.findReceivedAfter(2L, 10L, PageRequest.of(0, 3))).thenReturn(messages(11, 13));
+        when(messageRepository.findReceivedAfter(2L, 12L, PageRequest.of(0, 2))).thenReturn(messages(13, 14));
+
+        assertEquals(3, offlineReplayService.replay(2L, "bob", "s1"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> headers = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<MessageReplayDto> frames = ArgumentCaptor.forClass(MessageReplayDto.class);
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("bob"), eq("/queue/replay"),
+                frames.capture(), headers.capture());
+
+        assertEquals(List.of(11L, 12L), frames.getAllValues().get(0).getMessages().stream().map(MessageDTO::id).toList());
+        assertEquals(List.of(13L), frames.getAllValues().get(1).getMessages().stream().map(MessageDTO::id).toList());
+        // Limit reached with message 14 still pending
+        assertTrue(frames.getAllValues().get(1).isHasMore());
+        assertEquals("s1", SimpMessageHeaderAccessor.getSessionId(headers.getValue()));
+    }
+
+    @Test
+    void acknowledge_firstAck_createsCursor() {
+        when(deliveryCursorRepository.advance(eq(2L), eq(50L), any())).thenReturn(0);
+        when(deliveryCursorRepository.existsById(2L)).thenReturn(false);
+
+        offlineReplayService.acknowledge(2L, 50L);
+
+        ArgumentCaptor<DeliveryCursor> captor = ArgumentCaptor.forClass(DeliveryCursor.class);
+        verify(deliveryCursorRepository).saveAndFlush(captor.capture());
+        assertEquals(50L, captor.getValue().getLastDeliveredId());
+    }
+
+    @Test
+    void acknowledge_concurrentCreate_advancesExistingCursor() {
+        when(deliveryCursorRepository.advance(eq(2L), eq(50L), any())).thenReturn(0, 1);
+        when(deliveryCursorRepository.existsById(2L)).thenReturn(false);
+        when(deliveryCursorRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        offlineReplayService.acknowledge(2L, 50L);
+
+        verify(deliveryCursorRepository, times(2)).advance(eq(2L), eq(50L), any());
+    }
+
+    @Test
+    void acknowledge_olderMessageStillQueued_holdsCursorBelowIt() {
+        when(writeBehindQueue.oldestPendingIdFor(2L)).thenReturn(Optional.of(40L));
+        when(deliveryCursorRepository.advance(eq(2L), eq(39L), any())).thenReturn(1);
+
+        offlineReplayService.acknowledge(2L, 50L);
+
+        verify(deliveryCursorRepository, never()).advance(eq(2L), eq(50L), any());
+    }
+
+    @Test
+    void replay_writeBehind_waitsForQueuedMessagesBeforeReading() {
+        when(deliveryCursorRepository.findLastDeliveredId(2L)).thenReturn(Optional.of(10L));
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.awaitWritten(eq(2L), anyLong(), anyLong())).thenReturn(true);
+        when(messageRepository.findReceivedAfter(2L, 10L, PageRequest.of(0, 3))).thenReturn(messages(11, 12));
+
+        assertEquals(2, offlineReplayService.replay(2L, "bob", "s1"));
+
+        InOrder order = inOrder(writeBehindQueue, messageRepository);
+        order.verify(writeBehindQueue).awaitWritten(eq(2L), anyLong(), anyLong());
+        order.verify(messageRepository).findReceivedAfter(2L, 10L, PageRequest.of(0, 3));
+    }
+
+    @Test
+    void sessionSubscribed_replaysOncePerSession() {
+        offlineReplayService.start();
+        try {
+            when(deliveryCursorRepository.findLastDeliveredId(2L)).thenReturn(Optional.empty());
+
+            offlineReplayService.sessionSubscribed(2L, "bob", "s1");
+            offlineReplayService.sessionSubscribed(2L, "bob", "s1");
+
+            verify(deliveryCursorRepository, timeout(1000)).findLastDeliveredId(2L);
+            verify(deliveryCursorRepository, after(100).times(1)).findLastDeliveredId(anyLong());
+            verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any(), anyMap());
+        } finally {
+            offlineReplayService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.dto.UserStatusDTO;
+
+@ExtendWith(MockitoExtension.class)
+public class PresenceFanoutServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private SimpUserRegistry simpUserRegistry;
+
+    @Mock
+    private FriendshipService friendshipService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private SimpUser simpUser;
+
+    @InjectMocks
+    private PresenceFanoutService presenceFanoutService;
+
+    private final UserIdentity alice = new UserIdentity(1L, "alice", Role.USER);
+    private final UserIdentity bob = new UserIdentity(2L, "bob", Role.USER);
+    private final UserIdentity carol = new UserIdentity(3L, "carol", Role.USER);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(presenceFanoutService, "threads", 1);
+        ReflectionTestUtils.setField(presenceFanoutService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(presenceFanoutService, "coalesceWindowMs", 50L);
+        presenceFanoutService.start();
+
+        lenient().when(userService.getIdentityById(1L)).thenReturn(alice);
+        lenient().when(friendshipService.getFriendIdentities(1L)).thenReturn(List.of(bob, carol));
+        // bob is connected, carol is not
+        lenient().when(simpUserRegistry.getUser("bob")).thenReturn(simpUser);
+    }
+
+    @AfterEach
+    void tearDown() {
+        presenceFanoutService.shutdown();
+    }
+
+    @Test
+    void publish_sendsOnlyToConnectedFriends() {
+        presenceFanoutService.publish(1L, "ONLINE");
+
+        ArgumentCaptor<UserStatusDTO> captor = ArgumentCaptor.forClass(UserStatusDTO.class);
+        verify(messagingTemplate, timeout(1000)).convertAndSendToUser(eq("bob"), eq("/queue/status"), captor.capture());
+        verify(messagingTemplate, after(100).never()).convertAndSendToUser(eq("carol"), anyString(), any());
+        assertEquals("alice", captor.getValue().getUsername());
+        assertEquals("ONLINE", captor.getValue().getStatus());
+        assertNull(captor.getValue().getLastSeen());
+    }
+
+    @Test
+    void publish_burstWithinWindow_sendsLatestStatusOnce() {
+        presenceFanoutService.publish(1L, "OFFLINE");
+        presenceFanoutService.publish(1L, "ONLINE");
+        presenceFanoutService.publish(1L, "OFFLINE");
+
+        ArgumentCaptor<UserStatusDTO> captor = ArgumentCaptor.forClass(UserStatusDTO.class);
+        verify(messagingTemplate, timeout(1000)).convertAndSendToUser(eq("bob"), eq("/queue/status"), captor.capture());
+        verify(messagingTemplate, after(150).times(1)).convertAndSendToUser(anyString(), anyString(), any());
+        assertEquals("OFFLINE", captor.getValue().getStatus());
+        assertNotNull(captor.getValue().getLastSeen());
+        verify(friendshipService, times(1)).getFriendIdentities(1L);
+    }
+
+    @Test
+    void publish_unchangedStatus_isNotResent() {
+        presenceFanoutService.publish(1L, "ONLINE");
+        verify(messagingTemplate, timeout(1000)).convertAndSendToUser(eq("bob"), anyString(), any());
+
+        // Disconnect + reconnect inside one window nets out to the status friends already have
+        presenceFanoutService.publish(1L, "OFFLINE");
+        presenceFanoutService.publish(1L, "ONLINE");
+
+        verify(messagingTemplate, after(200).times(1)).convertAndSendToUser(anyString(), anyString(), any());
+    }
+
+    @Test
+    void publish_connectAndDisconnectWithinWindow_sendsNothing() {
+        presenceFanoutService.publish(1L, "ONLINE");
+        presenceFanoutService.publish(1L, "OFFLINE");
+
+        verify(messagingTemplate, after(400).never()).convertAndSendToUser(anyString(), anyString(), any());
+    }
+
+    @Test
+    void publish_sameStatusInLaterWindow_isSentAgain() {
+        // ONLINE through this node, OFFLINE reported by another node, then ONLINE here again:
+        // this node never saw the OFFLINE, yet friends must hear the new ONLINE
+        presenceFanoutService.publish(1L, "ONLINE");
+        verify(messagingTemplate, timeout(1000)).convertAndSendToUser(eq("bob"), anyString(), any());
+
+        presenceFanoutService.publish(1L, "ONLINE");
+
+        verify(messagingTemplate, timeout(1000).times(2)).convertAndSendToUser(eq("bob"), eq("/queue/status"), any());
+    }
+
+    @Test
+    void flush_consecutiveWindowsOfOneUser_sentInOrder() throws Exception {
+        ReflectionTestUtils.setField(presenceFanoutService, "threads", 2);
+        presenceFanoutService.shutdown();
+        presenceFanoutService.start();
+        // The first fan-out stalls on its friend lookup while the second window closes
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(friendshipService.getFriendIdentities(1L)).thenAnswer(inv -> {
+            if (firstStarted.getCount() > 0) {
+                firstStarted.countDown();
+                release.await();
+            }
+            return List.of(bob);
+        });
+
+        presenceFanoutService.publish(1L, "ONLINE");
+        firstStarted.await();
+        presenceFanoutService.publish(1L, "OFFLINE");
+        Thread.sleep(150); // Second window closed; a free worker must still not send it first
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+        release.countDown();
+
+        ArgumentCaptor<UserStatusDTO> captor = ArgumentCaptor.forClass(UserStatusDTO.class);
+        verify(messagingTemplate, timeout(1000).times(2)).convertAndSendToUser(eq("bob"), eq("/queue/status"), captor.capture());
+        assertEquals(List.of("ONLINE", "OFFLINE"), captor.getAllValues().stream().map(UserStatusDTO::getStatus).toList());
+    }
+}
@@ -0,0 +1,154 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.malak.chatapp.domain.Conversation;
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.ReceiptDTO;
+import com.malak.chatapp.dto.ReceiptStateDto;
+import com.malak.chatapp.dto.ReceiptType;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.exception.ResourceNotFoundException;
+import com.malak.chatapp.exception.UnauthorizedActionException;
+import com.malak.chatapp.repository.ConversationRepository;
+import com.malak.chatapp.repository.MessageRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class ReceiptServiceTest {
+
+    @Mock
+    private ConversationRepository conversationRepository;
+
+    @Mock
+    private ConversationService conversationService;
+
+    @Mock
+    private ConversationSummaryService conversationSummaryService;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MessageWriteBehindQueue writeBehindQueue;
+
+    @InjectMocks
+    private ReceiptService receiptService;
+
+    private final UserIdentity alice = new UserIdentity(1L, "alice", Role.USER);
+    private final UserIdentity bob = new UserIdentity(2L, "bob", Role.USER);
+
+    @Test
+    void acknowledge_markAdvanced_notifiesPeer() {
+        when(conversationService.findConversationId(2L, 1L)).thenReturn(Optional.of(7L));
+        when(messageRepository.findLatestIdFromSender(7L, 1L)).thenReturn(100L);
+        when(conversationRepository.advanceRead(7L, 2L, 100L)).thenReturn(1);
+
+        assertTrue(receiptService.acknowledge(bob, alice, 100L, ReceiptType.READ));
+
+        ArgumentCaptor<ReceiptDTO> captor = ArgumentCaptor.forClass(ReceiptDTO.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/receipts"), captor.capture());
+        assertEquals(7L, captor.getValue().getConversationId());
+        assertEquals("bob", captor.getValue().getPeer());
+        assertEquals(100L, captor.getValue().getMessageId());
+        assertEquals(ReceiptType.READ, captor.getValue().getType());
+        verify(conversationRepository, never()).advanceDelivered(any(), any(), any());
+        verify(conversationSummaryService).markRead(7L, 2L, 100L);
+    }
+
+    @Test
+    void acknowledge_staleReceipt_isSilent() {
+        when(conversationService.findConversationId(2L, 1L)).thenReturn(Optional.of(7L));
+        when(messageRepository.findLatestIdFromSender(7L, 1L)).thenReturn(100L);
+        when(conversationRepository.advanceDelivered(7L, 2L, 50L)).thenReturn(0);
+
+        assertFalse(receiptService.acknowledge(bob, alice, 50L, ReceiptType.DELIVERED));
+
+        verifyNoInteractions(messagingTemplate, conversationSummaryService);
+    }
+
+    @Test
+    void acknowledge_idBeyondPeersNewestMessage_isClamped() {
+        when(conversationService.findConversationId(2L, 1L)).thenReturn(Optional.of(7L));
+        when(messageRepository.findLatestIdFromSender(7L, 1L)).thenReturn(100L);
+        when(conversationRepository.advanceRead(7L, 2L, 100L)).thenReturn(1);
+
+        assertTrue(receiptService.acknowledge(bob, alice, Long.MAX_VALUE, ReceiptType.READ));
+
+        verify(conversationRepository).advanceRead(7L, 2L, 100L);
+        verify(conversationSummaryService).markRead(7L, 2L, 100L);
+        ArgumentCaptor<ReceiptDTO> captor = ArgumentCaptor.forClass(ReceiptDTO.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/receipts"), captor.capture());
+        assertEquals(100L, captor.getValue().getMessageId());
+    }
+
+    @Test
+    void acknowledge_messageNotYetWritten_countsQueuedMessages() {
+        when(conversationService.findConversationId(2L, 1L)).thenReturn(Optional.of(7L));
+        when(writeBehindQueue.latestPendingId(7L, 1L)).thenReturn(Optional.of(120L));
+        when(messageRepository.findLatestIdFromSender(7L, 1L)).thenReturn(100L);
+        when(conversationRepository.advanceDelivered(7L, 2L, 120L)).thenReturn(1);
+
+        assertTrue(receiptService.acknowledge(bob, alice, 120L, ReceiptType.DELIVERED));
+    }
+
+    @Test
+    void acknowledge_peerSentNothing_isIgnored() {
+        when(conversationService.findConversationId(2L, 1L)).thenReturn(Optional.of(7L));
+        when(messageRepository.findLatestIdFromSender(7L, 1L)).thenReturn(null);
+
+        assertFalse(receiptService.acknowledge(bob, alice, 5L, ReceiptType.READ));
+
+        verify(conversationRepository, never()).advanceRead(any(), any(), any());
+        verifyNoInteractions(messagingTemplate, conversationSummaryService);
+    }
+
+    @Test
+    void acknowledge_noConversation_throws() {
+        when(conversationService.findConversationId(2L, 1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> receiptService.acknowledge(bob, alice, 50L, ReceiptType.READ));
+        verifyNoInteractions(conversationRepository, messagingTemplate);
+    }
+
+    @Test
+    void getReceiptState_mapsBothSides() {
+        Conversation conversation = Conversation.create(User.builder().id(2L).build(), User.builder().id(1L).build());
+        conversation.setId(7L);
+        conversation.setUser1LastReadId(90L);
+        conversation.setUser1LastDeliveredId(95L);
+        conversation.setUser2LastDeliveredId(80L);
+        when(conversationRepository.findByOrderedUsers(1L, 2L)).thenReturn(Optional.of(conversation));
+
+        ReceiptStateDto state = receiptService.getReceiptState(1L, 2L, 1L);
+
+        assertEquals(1L, state.getUser1Id());
+        assertEquals(90L, state.getUser1LastReadId());
+        assertEquals(95L, state.getUser1LastDeliveredId());
+        assertEquals(2L, state.getUser2Id());
+        assertEquals(80L, state.getUser2LastDeliveredId());
+        assertNull(state.getUser2LastReadId());
+    }
+
+    @Test
+    void getReceiptState_notAParticipant_rejected() {
+        assertThrows(UnauthorizedActionException.class, () -> receiptService.getReceiptState(3L, 2L, 1L));
+        verifyNoInteractions(conversationRepository);
+    }
+}
@@ -0,0 +1,104 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.repository.InProcessPresenceBackend;
+
+public class SharedPresenceStoreTest {
+
+    private InProcessPresenceBackend backend;
+    private SharedPresenceStore nodeA;
+    private SharedPresenceStore nodeB;
+
+    @BeforeEach
+    void setUp() {
+        backend = new InProcessPresenceBackend();
+        nodeA = node("1", 30_000L);
+        nodeB = node("2", 30_000L);
+    }
+
+    private SharedPresenceStore node(String nodeId, long leaseMs) {
+        SharedPresenceStore store = new SharedPresenceStore(backend);
+        ReflectionTestUtils.setField(store, "nodeId", nodeId);
+        ReflectionTestUtils.setField(store, "leaseMs", leaseMs);
+        store.start();
+        return store;
+    }
+
+    @Test
+    void sessionsOnDifferentNodes_countAsOneUserOnline() {
+        assertTrue(nodeA.addSession(7L, "phone"));
+        assertFalse(nodeB.addSession(7L, "browser"));
+
+        assertTrue(nodeB.isOnline(7L));
+        assertEquals(2, nodeA.getSessionCount(7L));
+        assertEquals(List.of(7L), nodeB.getOnlineUserIds());
+
+        assertFalse(nodeA.removeSession(7L, "phone"));
+        assertTrue(nodeB.removeSession(7L, "browser"));
+        assertFalse(nodeA.isOnline(7L));
+        assertFalse(nodeA.removeSession(7L, "browser"));
+    }
+
+    @Test
+    void lastSeenAndTyping_areVisibleFromOtherNodes() {
+        LocalDateTime seen = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        nodeA.setLastSeen(7L, seen);
+        nodeA.markTyping(7L, 8L);
+
+        assertEquals(seen, nodeB.getLastSeen(7L));
+        assertTrue(nodeB.isTyping(7L, 8L));
+
+        nodeB.clearTyping(7L, 8L);
+        assertFalse(nodeA.isTyping(7L, 8L));
+    }
+
+    @Test
+    void heartbeat_removesSessionsOfNodeWithExpiredLease() {
+        SharedPresenceStore crashed = node("3", -1L);
+        crashed.addSession(7L, "phone");
+        crashed.markTyping(7L, 8L);
+        nodeA.addSession(9L, "laptop");
+        nodeA.addSession(10L, "laptop-2");
+        crashed.addSession(10L, "tablet");
+
+        List<Long> offline = nodeA.heartbeat();
+
+        // 10 still has a session on node 1, so only 7 went offline
+        assertEquals(List.of(7L), offline);
+        assertFalse(nodeB.isOnline(7L));
+        assertFalse(nodeB.isTyping(7L, 8L));
+        assertEquals(1, nodeB.getSessionCount(10L));
+        assertTrue(nodeB.heartbeat().isEmpty());
+    }
+
+    @Test
+    void start_clearsLeftoversFromPreviousRunOfSameNode() {
+        nodeA.addSession(7L, "phone");
+
+        SharedPresenceStore restarted = node("1", 30_000L);
+
+        assertFalse(restarted.isOnline(7L));
+        assertTrue(restarted.getOnlineUserIds().isEmpty());
+    }
+
+    @Test
+    void start_withoutExplicitNodeId_failsFast() {
+        SharedPresenceStore store = new SharedPresenceStore(backend);
+        ReflectionTestUtils.setField(store, "nodeId", "");
+        ReflectionTestUtils.setField(store, "leaseMs", 30_000L);
+        nodeA.addSession(7L, "phone");
+
+        assertThrows(IllegalStateException.class, store::start);
+        // Nothing owned by another node was touched
+        assertTrue(nodeB.isOnline(7L));
+    }
+}
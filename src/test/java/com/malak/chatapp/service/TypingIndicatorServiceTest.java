@@ -0,0 +1,95 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.dto.TypingIndicatorDTO;
+import com.malak.chatapp.dto.UserIdentity;
+
+@ExtendWith(MockitoExtension.class)
+public class TypingIndicatorServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PresenceStore presenceStore;
+
+    @InjectMocks
+    private TypingIndicatorService typingIndicatorService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(typingIndicatorService, "typingTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(typingIndicatorService, "tickMs", 50L);
+        ReflectionTestUtils.setField(typingIndicatorService, "dispatchQueueCapacity", 10);
+        typingIndicatorService.init();
+
+        lenient().when(userService.getIdentityById(1L)).thenReturn(new UserIdentity(1L, "alice", Role.USER));
+        lenient().when(userService.getIdentityById(2L)).thenReturn(new UserIdentity(2L, "bob", Role.USER));
+    }
+
+    @AfterEach
+    void tearDown() {
+        typingIndicatorService.shutdown();
+    }
+
+    @Test
+    void userStartedTyping_repeatedFrames_notifyOnce() {
+        for (int i = 0; i < 10; i++) {
+            typingIndicatorService.userStartedTyping(1L, 2L);
+        }
+
+        ArgumentCaptor<TypingIndicatorDTO> captor = ArgumentCaptor.forClass(TypingIndicatorDTO.class);
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("bob"), eq("/queue/typing"), captor.capture());
+        assertTrue(captor.getValue().isTyping());
+        verify(presenceStore, times(1)).markTyping(1L, 2L);
+        assertTrue(typingIndicatorService.isUserTyping(1L, 2L));
+    }
+
+    @Test
+    void userStoppedTyping_notifiesOnlyWhileActive() {
+        typingIndicatorService.userStartedTyping(1L, 2L);
+        typingIndicatorService.userStoppedTyping(1L, 2L);
+        typingIndicatorService.userStoppedTyping(1L, 2L);
+
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("bob"), eq("/queue/typing"), any());
+        verify(presenceStore, times(1)).clearTyping(1L, 2L);
+        assertFalse(typingIndicatorService.isUserTyping(1L, 2L));
+
+        // A new start after the stop notifies again
+        typingIndicatorService.userStartedTyping(1L, 2L);
+        verify(messagingTemplate, times(3)).convertAndSendToUser(eq("bob"), eq("/queue/typing"), any());
+    }
+
+    @Test
+    void expireTypingIndicators_sendsStopAfterTimeout() throws InterruptedException {
+        ReflectionTestUtils.setField(typingIndicatorService, "typingTimeoutMs", 100L);
+        typingIndicatorService.userStartedTyping(1L, 2L);
+
+        Thread.sleep(250);
+        // What the scheduler would run on its next tick
+        typingIndicatorService.expireTypingIndicators();
+
+        ArgumentCaptor<TypingIndicatorDTO> captor = ArgumentCaptor.forClass(TypingIndicatorDTO.class);
+        verify(messagingTemplate, timeout(1000).times(2)).convertAndSendToUser(eq("bob"), eq("/queue/typing"), captor.capture());
+        assertFalse(captor.getAllValues().get(1).isTyping());
+        verify(presenceStore, timeout(1000)).clearTyping(1L, 2L);
+    }
+}
@@ -0,0 +1,57 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class TypingRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final TypingRateLimiter rateLimiter = new TypingRateLimiter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateLimiter, "capacity", 3);
+        ReflectionTestUtils.setField(rateLimiter, "refillPerSecond", 2.0);
+    }
+
+    @Test
+    void tryAcquire_burstUpToCapacity_thenRejects() {
+        assertTrue(rateLimiter.tryAcquire("s1", 0));
+        assertTrue(rateLimiter.tryAcquire("s1", 0));
+        assertTrue(rateLimiter.tryAcquire("s1", 0));
+        assertFalse(rateLimiter.tryAcquire("s1", 0));
+    }
+
+    @Test
+    void tryAcquire_refillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("s1", 0);
+        }
+
+        assertTrue(rateLimiter.tryAcquire("s1", SECOND / 2));
+        assertFalse(rateLimiter.tryAcquire("s1", SECOND / 2));
+        // Never more than capacity, however long the session was idle
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("s1", 60 * SECOND));
+        }
+        assertFalse(rateLimiter.tryAcquire("s1", 60 * SECOND));
+    }
+
+    @Test
+    void sessions_haveSeparateBuckets_andAreRemovedOnDisconnect() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("s1", 0);
+        }
+
+        assertTrue(rateLimiter.tryAcquire("s2", 0));
+        assertEquals(2, rateLimiter.getTrackedSessions());
+
+        rateLimiter.removeSession("s1");
+        assertEquals(1, rateLimiter.getTrackedSessions());
+        assertTrue(rateLimiter.tryAcquire("s1", 0));
+    }
+}
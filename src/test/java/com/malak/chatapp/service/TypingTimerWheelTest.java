@@ -0,0 +1,79 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TypingTimerWheelTest {
+
+    private static final long TICK = 100;
+
+    private final TypingTimerWheel wheel = new TypingTimerWheel(TICK, 8, 0);
+    private final TypingKey key = new TypingKey(1L, 2L);
+
+    @Test
+    void advance_expiresKeyAfterDeadline() {
+        assertTrue(wheel.arm(key, 500));
+
+        assertTrue(wheel.advance(400).isEmpty());
+        assertTrue(wheel.isArmed(key, 400));
+
+        assertEquals(List.of(key), wheel.advance(500));
+        assertFalse(wheel.isArmed(key, 500));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void arm_again_extendsDeadlineWithoutNewEntry() {
+        assertTrue(wheel.arm(key, 500));
+        assertFalse(wheel.arm(key, 900));
+
+        assertTrue(wheel.advance(600).isEmpty());
+        assertTrue(wheel.isArmed(key, 600));
+        assertEquals(List.of(key), wheel.advance(900));
+        assertTrue(wheel.advance(2000).isEmpty());
+    }
+
+    @Test
+    void arm_deadlineBeyondOneRotation_waitsForIt() {
+        // 8 buckets * 100ms covers 800ms; the entry has to survive one extra pass
+        wheel.arm(key, 1500);
+
+        assertTrue(wheel.advance(900).isEmpty());
+        assertTrue(wheel.advance(1400).isEmpty());
+        assertEquals(List.of(key), wheel.advance(1500));
+    }
+
+    @Test
+    void cancel_thenRearm_expiresOnlyOnce() {
+        wheel.arm(key, 300);
+        assertTrue(wheel.cancel(key));
+        assertFalse(wheel.cancel(key));
+        assertTrue(wheel.arm(key, 300));
+
+        assertEquals(List.of(key), wheel.advance(300));
+        assertTrue(wheel.advance(1000).isEmpty());
+    }
+
+    @Test
+    void cancel_preventsExpiry() {
+        wheel.arm(key, 300);
+        wheel.cancel(key);
+
+        assertTrue(wheel.advance(1000).isEmpty());
+    }
+
+    @Test
+    void advance_afterLongPause_catchesUp() {
+        TypingKey other = new TypingKey(3L, 4L);
+        wheel.arm(key, 200);
+        wheel.arm(other, 700);
+
+        List<TypingKey> expired = wheel.advance(10_000);
+
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(List.of(key, other)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.dto.UserIdentity;
+import com.malak.chatapp.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class UserIdentityCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserIdentityCache cache;
+
+    private final UserIdentity alice = new UserIdentity(1L, "alice", Role.USER);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserIdentityCache(userRepository, meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        cache.init();
+    }
+
+    @Test
+    void findByUsername_secondCall_servedFromCache() {
+        when(userRepository.findIdentityByUsername("alice")).thenReturn(Optional.of(alice));
+
+        assertEquals(Optional.of(alice), cache.findByUsername("alice"));
+        assertEquals(Optional.of(alice), cache.findByUsername("alice"));
+
+        verify(userRepository, times(1)).findIdentityByUsername("alice");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "userIdentityByUsername")
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void findByUsername_populatesIdCache() {
+        when(userRepository.findIdentityByUsername("alice")).thenReturn(Optional.of(alice));
+
+        cache.findByUsername("alice");
+
+        assertEquals(Optional.of(alice), cache.findById(1L));
+        verify(userRepository, never()).findIdentityById(1L);
+    }
+
+    @Test
+    void findByUsername_missingUser_isNotCached() {
+        when(userRepository.findIdentityByUsername("bob"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new UserIdentity(2L, "bob", Role.USER)));
+
+        assertTrue(cache.findByUsername("bob").isEmpty());
+        assertTrue(cache.findByUsername("bob").isPresent());
+    }
+
+    @Test
+    void invalidateUsername_evictsBothKeys() {
+        when(userRepository.findIdentityByUsername("alice")).thenReturn(Optional.of(alice));
+        when(userRepository.findIdentityById(1L)).thenReturn(Optional.of(alice));
+        cache.findByUsername("alice");
+
+        cache.invalidateUsername("alice");
+        cache.findById(1L);
+        cache.findByUsername("alice");
+
+        verify(userRepository).findIdentityById(1L);
+    }
+}
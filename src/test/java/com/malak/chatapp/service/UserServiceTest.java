@@ -2,11 +2,15 @@ package com.malak.chatapp.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -15,11 +19,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.malak.chatapp.domain.Role;
 import com.malak.chatapp.domain.User;
 import com.malak.chatapp.dto.CreateUserDto;
+import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.dto.UserSearchPageDto;
 import com.malak.chatapp.exception.ResourceAlreadyExistsException;
 import com.malak.chatapp.repository.UserRepository;
 
@@ -31,6 +38,12 @@ public class UserServiceTest {
 	@Mock
 	PasswordEncoder passwordEncoder;
 	
+	@Mock
+	UserIdentityCache userIdentityCache;
+	
+	@Mock
+	UsernameAutocompleteIndex usernameAutocompleteIndex;
+	
 	@InjectMocks
 	UserService userService;
 	
@@ -68,6 +81,60 @@ public class UserServiceTest {
 	    assertEquals("test", savedUser.getUsername());
 	    assertEquals("encodedPassword", savedUser.getPassword());
 	    assertEquals(Role.USER, savedUser.getRole());
+	    verify(userIdentityCache).invalidateUsername("test");
+	}
+	
+	@Test
+	void createUser_validCall_addsSavedUserToAutocompleteIndex() {
+		CreateUserDto userDto = CreateUserDto.builder().username("test").password("raw").build();
+		User saved = User.builder().id(7L).username("test").role(Role.USER).build();
+		when(userRepository.findByUsername("test")).thenReturn(Optional.empty());
+		when(userRepository.save(any(User.class))).thenReturn(saved);
+
+		userService.createUser(userDto, Role.USER);
+
+		verify(usernameAutocompleteIndex).add(saved);
+	}
+	
+	@Test
+	void searchUsersByUsername_indexReady_skipsDatabase() {
+		when(usernameAutocompleteIndex.isReady()).thenReturn(true);
+		when(usernameAutocompleteIndex.findByPrefix("jo", null, null, 21))
+				.thenReturn(List.of(new UserDto(1L, "john", Role.USER)));
+
+		UserSearchPageDto page = userService.searchUsersByUsername("jo", null, null, 20);
+
+		assertEquals(1, page.getUsers().size());
+		assertEquals("john", page.getNextCursor());
+		verifyNoInteractions(userRepository);
+	}
+	
+	@Test
+	void searchUsersByUsername_lowercasesAndEscapesWildcards() {
+		when(userRepository.searchByUsernamePrefix(eq("jo\\_h\\%%"), eq(""), eq(0L), any(Pageable.class)))
+				.thenReturn(List.of());
+
+		userService.searchUsersByUsername(" Jo_H% ", null, null, 20);
+
+		ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+		verify(userRepository).searchByUsernamePrefix(eq("jo\\_h\\%%"), eq(""), eq(0L), captor.capture());
+		assertEquals(21, captor.getValue().getPageSize());
+	}
+	
+	@Test
+	void searchUsersByUsername_extraRow_setsCursorToLastReturnedRow() {
+		List<UserDto> rows = List.of(
+				new UserDto(1L, "Alice", Role.USER),
+				new UserDto(2L, "alicia", Role.USER),
+				new UserDto(3L, "ALIEN", Role.USER));
+		when(userRepository.searchByUsernamePrefix(eq("ali%"), eq("al"), eq(7L), any(Pageable.class))).thenReturn(rows);
+
+		UserSearchPageDto page = userService.searchUsersByUsername("ali", "al", 7L, 2);
+
+		assertEquals(2, page.getUsers().size());
+		assertTrue(page.isHasMore());
+		assertEquals("alicia", page.getNextCursor());
+		assertEquals(2L, page.getNextCursorId());
 	}
 
 }
@@ -0,0 +1,132 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trie lookups against the indexed SQL prefix search on the same rows (embedded H2, so the
+ * SQL side has no network round trip and is a lower bound).
+ * Run with: mvn test -Dtest=UsernameAutocompleteBenchmarkTest -Dbenchmark=true
+ */
+@Slf4j
+@DataJpaTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UsernameAutocompleteBenchmarkTest {
+
+    private static final int USERS = 20_000;
+    private static final int QUERIES = 2_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Test
+    void trieVersusSql() {
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder().username(randomName(random) + i).password("x").role(Role.USER).build());
+        }
+        userRepository.saveAll(users);
+        entityManager.flush();
+        entityManager.clear();
+
+        UsernameAutocompleteIndex index = new UsernameAutocompleteIndex(userRepository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        long buildStart = System.nanoTime();
+        index.rebuild();
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        List<String> queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            String name = users.get(random.nextInt(USERS)).getUsername();
+            queries.add(name.substring(0, 1 + random.nextInt(Math.min(4, name.length()))));
+        }
+
+        // Same rows from both paths before timing anything
+        for (String query : queries.subList(0, 100)) {
+            assertEquals(ids(sql(query)), ids(index.findByPrefix(query, null, null, PAGE_SIZE)));
+        }
+
+        // Warm up both paths, then time them
+        runSql(queries);
+        runTrie(index, queries);
+        long sqlNanos = runSql(queries);
+        long trieNanos = runTrie(index, queries);
+        long suggestNanos = runSuggest(index, queries);
+
+        log.info("Autocomplete over {} users (trie built in {} ms), {} prefix queries, top {}",
+                index.size(), buildMillis, QUERIES, PAGE_SIZE);
+        log.info("SQL prefix search  {} us/query", perQuery(sqlNanos));
+        log.info("Trie prefix lookup {} us/query", perQuery(trieNanos));
+        log.info("Trie with typos    {} us/query", perQuery(suggestNanos));
+    }
+
+    private static String perQuery(long nanos) {
+        return String.format("%8.1f", nanos / 1_000.0 / QUERIES);
+    }
+
+    private List<UserDto> sql(String query) {
+        return userRepository.searchByUsernamePrefix(UserService.prefixPattern(query), "", 0L, PageRequest.of(0, PAGE_SIZE));
+    }
+
+    private long runSql(List<String> queries) {
+        long start = System.nanoTime();
+        for (String query : queries) {
+            sql(query);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runTrie(UsernameAutocompleteIndex index, List<String> queries) {
+        long start = System.nanoTime();
+        for (String query : queries) {
+            index.findByPrefix(query, null, null, PAGE_SIZE);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runSuggest(UsernameAutocompleteIndex index, List<String> queries) {
+        long start = System.nanoTime();
+        for (String query : queries) {
+            index.suggest(query, PAGE_SIZE);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<Long> ids(List<UserDto> users) {
+        return users.stream().map(UserDto::getId).toList();
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int length = 3 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            name.append((char) ('a' + random.nextInt(26)));
+        }
+        return random.nextBoolean() ? name.toString() : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
@@ -0,0 +1,162 @@
+package com.malak.chatapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.malak.chatapp.domain.Role;
+import com.malak.chatapp.domain.User;
+import com.malak.chatapp.dto.UserDto;
+import com.malak.chatapp.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class UsernameAutocompleteIndexTest {
+
+    @Mock
+    UserRepository userRepository;
+
+    UsernameAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UsernameAutocompleteIndex(userRepository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+    }
+
+    private void build(String... usernames) {
+        long id = 1;
+        List<UserDto> users = new java.util.ArrayList<>();
+        for (String username : usernames) {
+            users.add(new UserDto(id++, username, Role.USER));
+        }
+        when(userRepository.findDtosAfter(eq(0L), any(Pageable.class))).thenReturn(users);
+        index.rebuild();
+    }
+
+    private static List<String> names(List<UserDto> users) {
+        return users.stream().map(UserDto::getUsername).toList();
+    }
+
+    @Test
+    void findByPrefix_caseInsensitive_inLowercaseOrder() {
+        build("johnny", "bob", "John_Doe", "joHNx", "jo", "xjohn");
+
+        assertTrue(index.isReady());
+        assertEquals(6, index.size());
+        assertEquals(List.of("John_Doe", "johnny", "joHNx"), names(index.findByPrefix("JOHN", null, null, 10)));
+        assertEquals(List.of("jo", "John_Doe"), names(index.findByPrefix("jo", null, null, 2)));
+        assertEquals(List.of(), names(index.findByPrefix("johz", null, null, 10)));
+    }
+
+    @Test
+    void findByPrefix_cursor_continuesAfterLastKey() {
+        build("anna", "annabel", "annie", "ann", "bob");
+
+        assertEquals(List.of("ann", "anna"), names(index.findByPrefix("an", null, null, 2)));
+        assertEquals(List.of("annabel", "annie"), names(index.findByPrefix("an", "anna", 1L, 2)));
+        assertEquals(List.of(), names(index.findByPrefix("an", "annie", 3L, 2)));
+    }
+
+    @Test
+    void findByPrefix_cursor_pagesThroughNamesEqualIgnoringCase() {
+        build("john", "JOHN", "John", "johnny");
+
+        List<UserDto> first = index.findByPrefix("jo", null, null, 2);
+        assertEquals(List.of(1L, 2L), first.stream().map(UserDto::getId).toList());
+        List<UserDto> second = index.findByPrefix("jo", "john", 2L, 2);
+        assertEquals(List.of("John", "johnny"), names(second));
+        assertEquals(List.of(), names(index.findByPrefix("jo", "johnny", 4L, 2)));
+    }
+
+    @Test
+    void suggest_exactPrefixFirst_thenTypos() {
+        build("john", "johanna", "jon", "joan", "mike");
+
+        // "jhon" is one transposition away from "john" and one deletion away from "jon"
+        assertEquals(List.of("john", "jon"), names(index.suggest("jhon", 5)));
+        // Exact prefix matches first, then one edit away, each in key order
+        assertEquals(List.of("johanna", "john", "joan", "jon"), names(index.suggest("joh", 5)));
+    }
+
+    @Test
+    void suggest_shortQuery_noTypoTolerance() {
+        build("al", "bo", "ab");
+
+        assertEquals(List.of("ab"), names(index.suggest("ab", 5)));
+    }
+
+    @Test
+    void suggest_limitReached_keepsClosestMatches() {
+        build("maria", "mario", "marta", "mariana", "maxine");
+
+        assertEquals(List.of("maria", "mariana"), names(index.suggest("mari", 2)));
+        assertEquals(List.of("maria", "mariana", "mario", "marta"), names(index.suggest("mari", 4)));
+    }
+
+    @Test
+    void add_splitsEdges_andIgnoresDuplicates() {
+        build();
+        index.add(User.builder().id(1L).username("romeo").role(Role.USER).build());
+        index.add(User.builder().id(2L).username("roman").role(Role.USER).build());
+        index.add(User.builder().id(3L).username("ROM").role(Role.USER).build());
+        index.add(User.builder().id(2L).username("roman").role(Role.USER).build());
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("ROM", "roman", "romeo"), names(index.findByPrefix("ro", null, null, 10)));
+    }
+
+    @Test
+    void refresh_loadsUsersRegisteredElsewhere_rereadingThePreviousRange() {
+        build("alice", "bob");
+        when(userRepository.findDtosAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(new UserDto(4L, "carl", Role.USER)))
+                // id 3 committed after 4 was read: the next refresh starts from 2 again
+                .thenReturn(List.of(new UserDto(3L, "cara", Role.USER), new UserDto(4L, "carl", Role.USER),
+                        new UserDto(5L, "cat", Role.USER)));
+        when(userRepository.findDtosAfter(eq(4L), any(Pageable.class)))
+                .thenReturn(List.of(new UserDto(5L, "cat", Role.USER)));
+
+        index.refresh();
+        assertEquals(List.of("carl"), names(index.findByPrefix("ca", null, null, 10)));
+
+        index.refresh();
+        assertEquals(List.of("cara", "carl", "cat"), names(index.findByPrefix("ca", null, null, 10)));
+
+        index.refresh();
+        assertEquals(5, index.size());
+        verify(userRepository).findDtosAfter(eq(4L), any(Pageable.class));
+    }
+
+    @Test
+    void refresh_beforeBuild_skipsDatabase() {
+        index.refresh();
+
+        assertFalse(index.isReady());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void disabled_neverReady() {
+        ReflectionTestUtils.setField(index, "enabled", false);
+
+        index.rebuild();
+
+        assertFalse(index.isReady());
+        verifyNoInteractions(userRepository);
+    }
+}